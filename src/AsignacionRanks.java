@@ -0,0 +1,121 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Qué corre cada rank trabajador de EstacionSolarMPJ.
+ *
+ * La opción asignacion es una lista separada por comas de entradas
+ * algoritmo[:drones[:bahias]] (lo que falte sale de las opciones drones y
+ * bahias). El rank 1 toma la primera entrada, el 2 la segunda, y al acabarse
+ * la lista se vuelve a empezar: con más ranks que entradas cada entrada se
+ * repite en varios ranks (réplicas) y los resultados se agrupan por entrada.
+ * Sin la opción se usan los cinco algoritmos de siempre, uno por rank.
+ *
+ * Con semilla=n el rank r usa Random(n + r), así una corrida se puede repetir;
+ * sin ella cada rank usa una semilla al azar.
+ */
+final class AsignacionRanks {
+
+    static final String POR_OMISION = "Mutex,Semaforos,Monitores,LockCondicion,Barreras";
+
+    // Nombres de serie que ya usan las gráficas para los cinco algoritmos originales
+    private static final String[][] SERIES_CONOCIDAS = {
+        {"Mutex", "Núcleo 1 (Mutex)"},
+        {"Semaforos", "Núcleo 2 (Semáforos)"},
+        {"Monitores", "Núcleo 3 (Monitores)"},
+        {"LockCondicion", "Núcleo 4 (Var. Cond)"},
+        {"Barreras", "Núcleo 5 (Barreras)"}
+    };
+
+    /**
+     * Configuración de un grupo de réplicas.
+     */
+    static final class Entrada {
+        final int grupo;
+        final String etiqueta; // la entrada tal como se escribió, p. ej. "Mutex:200"
+        final String algoritmo;
+        final int drones;
+        final int bahias;
+
+        Entrada(int grupo, String etiqueta, String algoritmo, int drones, int bahias) {
+            this.grupo = grupo;
+            this.etiqueta = etiqueta;
+            this.algoritmo = algoritmo;
+            this.drones = drones;
+            this.bahias = bahias;
+        }
+    }
+
+    private final List<Entrada> entradas = new ArrayList<>();
+    private final Long semilla;
+
+    AsignacionRanks(Map<String, String> opciones) {
+        int dronesPorOmision = Integer.parseInt(opciones.getOrDefault("drones", "20"));
+        int bahiasPorOmision = Integer.parseInt(opciones.getOrDefault("bahias", "3"));
+        for (String texto : opciones.getOrDefault("asignacion", POR_OMISION).split(",")) {
+            String etiqueta = texto.trim();
+            if (etiqueta.isEmpty()) continue;
+            String[] partes = etiqueta.split(":");
+            if (!EstacionesCarga.existe(partes[0].trim())) {
+                throw new IllegalArgumentException("Algoritmo desconocido en la asignación: " + etiqueta);
+            }
+            int drones = partes.length > 1 ? Integer.parseInt(partes[1].trim()) : dronesPorOmision;
+            int bahias = partes.length > 2 ? Integer.parseInt(partes[2].trim()) : bahiasPorOmision;
+            entradas.add(new Entrada(entradas.size(), etiqueta, partes[0].trim(), drones, bahias));
+        }
+        if (entradas.isEmpty()) {
+            throw new IllegalArgumentException("La asignación de ranks está vacía");
+        }
+        String textoSemilla = opciones.get("semilla");
+        this.semilla = textoSemilla == null ? null : Long.parseLong(textoSemilla);
+    }
+
+    /**
+     * Entrada del rank trabajador dado (1 en adelante).
+     */
+    Entrada porRank(int rank) {
+        return entradas.get((rank - 1) % entradas.size());
+    }
+
+    int numGrupos() {
+        return entradas.size();
+    }
+
+    Entrada grupo(int indice) {
+        return entradas.get(indice);
+    }
+
+    Random aleatorio(int rank) {
+        return semilla == null ? new Random() : new Random(semilla + rank);
+    }
+
+    /**
+     * Nombre de la serie de la gráfica de un grupo.
+     */
+    String serie(int grupo) {
+        String etiqueta = entradas.get(grupo).etiqueta;
+        for (String[] conocida : SERIES_CONOCIDAS) {
+            if (conocida[0].equals(etiqueta)) return conocida[1];
+        }
+        return etiqueta;
+    }
+
+    String[] series() {
+        String[] nombres = new String[entradas.size()];
+        for (int g = 0; g < nombres.length; g++) {
+            nombres[g] = serie(g);
+        }
+        return nombres;
+    }
+
+    String describir() {
+        StringBuilder sb = new StringBuilder();
+        for (Entrada e : entradas) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(e.algoritmo).append(':').append(e.drones).append(':').append(e.bahias);
+        }
+        return sb.append(semilla == null ? "" : " semilla=" + semilla).toString();
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asignador de bahías sin candados para GestorEstacion ("LockFree").
+ *
+ * El contador de bahías es un AtomicInteger que se decrementa con CAS, y las
+ * colas de críticos y normales son ConcurrentLinkedQueue. Sólo el dron en la
+ * cabeza de su cola puede intentar tomar una bahía (los normales además
+ * necesitan que no haya críticos esperando), así se respeta la misma prioridad
+ * que en el monitor. Los que no pueden pasar se estacionan con LockSupport.park
+ * y quien libera una bahía despierta únicamente a la cabeza.
+ *
+ * No hay pérdida de despertares: quien llega se encola y luego intenta el CAS,
+ * y quien libera incrementa y luego mira la cabeza; con operaciones atómicas
+ * al menos uno de los dos ve al otro. Si el unpark llega antes del park, el
+ * permiso queda guardado y park regresa de inmediato. Una Cancelacion
+ * despierta al dron con unpark; si ya había tomado la bahía la devuelve.
+ */
+public class AsignadorLockFree {
+
+    private static final class Nodo {
+        final Thread hilo;
+        final int idDron;
+
+        Nodo(Thread hilo, int idDron) {
+            this.hilo = hilo;
+            this.idDron = idDron;
+        }
+    }
+
+    private final AtomicInteger bahias;
+    private final ConcurrentLinkedQueue<Nodo> colaCriticos = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Nodo> colaNormales = new ConcurrentLinkedQueue<>();
+    private volatile boolean haySol = true;
+
+    public AsignadorLockFree(int bahias) {
+        this.bahias = new AtomicInteger(bahias);
+    }
+
+    public void solicitar(int idDron, boolean critico) throws InterruptedException {
+        solicitar(idDron, critico, Long.MAX_VALUE);
+    }
+
+    /**
+     * Como solicitar, pero se rinde tras plazoNanos (Long.MAX_VALUE: sin
+     * límite); devuelve false si no obtuvo bahía.
+     */
+    public boolean solicitar(int idDron, boolean critico, long plazoNanos) throws InterruptedException {
+        return solicitar(idDron, critico, plazoNanos, null);
+    }
+
+    /**
+     * Como solicitar con plazo; además devuelve false si otro hilo cancela
+     * con cancelacion (puede ser null).
+     */
+    boolean solicitar(int idDron, boolean critico, long plazoNanos, Cancelacion cancelacion)
+            throws InterruptedException {
+        Nodo yo = new Nodo(Thread.currentThread(), idDron);
+        ConcurrentLinkedQueue<Nodo> cola = critico ? colaCriticos : colaNormales;
+        cola.offer(yo);
+        if (cancelacion != null) cancelacion.alCancelar(() -> LockSupport.unpark(yo.hilo));
+        boolean sinPlazo = plazoNanos == Long.MAX_VALUE;
+        long limite = sinPlazo ? 0 : System.nanoTime() + plazoNanos;
+
+        while (true) {
+            if (cancelacion != null && cancelacion.cancelada()) {
+                cola.remove(yo);
+                despertarCabeza();
+                return false;
+            }
+            if (haySol && esTurno(yo, critico) && tomarBahia()) {
+                cola.poll(); // yo soy la cabeza, nadie más puede sacarme
+                if (cancelacion != null && !cancelacion.conceder()) {
+                    // Lo cancelaron justo antes: la bahía es para el siguiente
+                    liberar();
+                    return false;
+                }
+                // Si quedan bahías, la nueva cabeza no tiene por qué esperar otra liberación
+                despertarCabeza();
+                return true;
+            }
+            if (sinPlazo) {
+                LockSupport.park(this);
+            } else {
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) {
+                    cola.remove(yo);
+                    despertarCabeza();
+                    return false;
+                }
+                LockSupport.parkNanos(this, restante);
+            }
+            if (Thread.interrupted()) {
+                cola.remove(yo);
+                despertarCabeza();
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    public void liberar() {
+        bahias.incrementAndGet();
+        despertarCabeza();
+    }
+
+    public void setEnergiaSolar(boolean activo) {
+        haySol = activo;
+        if (activo) despertarCabeza();
+    }
+
+    public int getBahiasDisponibles() {
+        return bahias.get();
+    }
+
+    private boolean esTurno(Nodo yo, boolean critico) {
+        if (critico) {
+            return colaCriticos.peek() == yo;
+        }
+        return colaCriticos.isEmpty() && colaNormales.peek() == yo;
+    }
+
+    private boolean tomarBahia() {
+        int actual;
+        while ((actual = bahias.get()) > 0) {
+            if (bahias.compareAndSet(actual, actual - 1)) return true;
+        }
+        return false;
+    }
+
+    private void despertarCabeza() {
+        if (!haySol || bahias.get() == 0) return;
+        Nodo cabeza = colaCriticos.peek();
+        if (cabeza == null) cabeza = colaNormales.peek();
+        if (cabeza != null) LockSupport.unpark(cabeza.hilo);
+    }
+}
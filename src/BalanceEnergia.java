@@ -0,0 +1,243 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Balance de energía de la estación: lo que produce el panel solar entra al
+ * saldo (hasta la capacidad de la batería) y cada bahía en uso gasta
+ * consumoPorSegundo. Un dron no empieza a cargar hasta que el saldo alcanza
+ * para minimoCarga; esa cantidad se reserva al empezar y al liberar la bahía
+ * se cobra lo que realmente gastó según el tiempo en la bahía. El saldo puede
+ * quedar negativo (deuda) y entonces nadie empieza hasta recuperarlo.
+ * Críticos antes que normales.
+ *
+ * La producción se junta sin candado en pendiente y sólo se pasa al saldo
+ * (tomando el candado) cuando llega a un lote, o antes si hay drones
+ * esperando y lo pendiente ya alcanza para el primero. Así el productor no
+ * toma el candado en cada paso.
+ */
+public class BalanceEnergia {
+    private final long capacidad;
+    private final long consumoPorSegundo;
+    private final long minimoCarga;
+    private final long lote;
+
+    private final AtomicLong pendiente = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition turnoCriticos = lock.newCondition();
+    private final Condition turnoNormales = lock.newCondition();
+    // Lo que le falta al primero que espera; 0 si nadie espera (se escribe con lock)
+    private volatile long faltante = 0;
+
+    // Protegidos por lock
+    private long saldo;
+    private int criticosEsperando = 0;
+    private int normalesEsperando = 0;
+
+    private final LongAdder publicaciones = new LongAdder();
+    private final HistogramaLatencia esperaEnergia = new HistogramaLatencia();
+
+    public BalanceEnergia(long capacidad, long saldoInicial, long consumoPorSegundo, long minimoCarga, long lote) {
+        this.capacidad = capacidad;
+        this.saldo = Math.min(capacidad, saldoInicial);
+        this.consumoPorSegundo = consumoPorSegundo;
+        this.minimoCarga = minimoCarga;
+        this.lote = Math.max(1, lote);
+    }
+
+    /**
+     * Potencia de una curva solar de un día: media onda senoidal de día con
+     * máximo pico al mediodía y cero toda la noche.
+     */
+    public static double potenciaSolar(long tiempoMs, long diaMs, double pico) {
+        double fase = (double) (tiempoMs % diaMs) / diaMs;
+        return Math.max(0, pico * Math.sin(2 * Math.PI * fase));
+    }
+
+    /**
+     * Hilo productor: cada pasoMs suma lo que la curva solar produjo en ese
+     * paso (potencia en unidades por segundo). El día empieza al amanecer.
+     */
+    public static class ProductorSolar implements Runnable {
+        private final BalanceEnergia balance;
+        private final long diaMs;
+        private final double pico;
+        private final long pasoMs;
+
+        public ProductorSolar(BalanceEnergia balance, long diaMs, double pico, long pasoMs) {
+            this.balance = balance;
+            this.diaMs = diaMs;
+            this.pico = pico;
+            this.pasoMs = pasoMs;
+        }
+
+        @Override
+        public void run() {
+            long inicio = System.currentTimeMillis();
+            long anterior = 0;
+            double resto = 0; // fracciones de unidad que quedan para el siguiente paso
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(pasoMs);
+                    long ahora = System.currentTimeMillis() - inicio;
+                    // Regla del trapecio entre el paso anterior y éste
+                    double producido = resto + (potenciaSolar(anterior, diaMs, pico)
+                            + potenciaSolar(ahora, diaMs, pico)) / 2 * (ahora - anterior) / 1000.0;
+                    long entero = (long) producido;
+                    resto = producido - entero;
+                    if (entero > 0) balance.producir(entero);
+                    anterior = ahora;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Suma energía producida. Normalmente no toma el candado.
+     */
+    public void producir(long cantidad) {
+        long acumulado = pendiente.addAndGet(cantidad);
+        long falta = faltante;
+        if (acumulado >= lote || (falta > 0 && acumulado >= falta)) {
+            lock.lock();
+            try {
+                incorporar();
+                despertar();
+            } finally {
+                lock.unlock();
+            }
+            publicaciones.increment();
+        }
+    }
+
+    /**
+     * Espera a que alcance la energía para empezar una carga y la reserva.
+     * Devuelve lo reservado, que luego se pasa a cobrar o devolver.
+     */
+    public long reservar(boolean critico) throws InterruptedException {
+        return reservar(critico, Long.MAX_VALUE);
+    }
+
+    /**
+     * Como reservar, pero se rinde tras plazoNanos (Long.MAX_VALUE: sin
+     * límite) y entonces devuelve -1 sin reservar nada.
+     */
+    public long reservar(boolean critico, long plazoNanos) throws InterruptedException {
+        long inicio = System.nanoTime();
+        lock.lock();
+        try {
+            incorporar();
+            if (puedeEmpezar(critico) && (critico ? criticosEsperando == 0 : normalesEsperando == 0)) {
+                saldo -= minimoCarga;
+                return minimoCarga;
+            }
+            Condition turno = critico ? turnoCriticos : turnoNormales;
+            if (critico) criticosEsperando++;
+            else normalesEsperando++;
+            long restante = plazoNanos;
+            try {
+                while (true) {
+                    incorporar();
+                    if (puedeEmpezar(critico)) break;
+                    if (restante <= 0) {
+                        dejarDeEsperar(critico);
+                        despertar();
+                        return -1;
+                    }
+                    // Sólo lo que de verdad falta de energía; 0 si lo que detiene es un crítico
+                    long falta = Math.max(0, minimoCarga - saldo);
+                    faltante = falta;
+                    // producir suma a pendiente y luego lee faltante; aquí es al revés, así
+                    // uno de los dos ve lo del otro y lo producido no se queda sin avisar
+                    if (falta > 0 && pendiente.get() >= falta) continue;
+                    if (plazoNanos == Long.MAX_VALUE) {
+                        turno.await();
+                    } else {
+                        restante = turno.awaitNanos(restante);
+                    }
+                }
+            } catch (InterruptedException e) {
+                dejarDeEsperar(critico);
+                // Pudo haberse llevado el aviso de otro
+                despertar();
+                throw e;
+            }
+            dejarDeEsperar(critico);
+            saldo -= minimoCarga;
+            // Si sobra, que pase el siguiente
+            despertar();
+        } finally {
+            lock.unlock();
+        }
+        esperaEnergia.registrar(System.nanoTime() - inicio);
+        return minimoCarga;
+    }
+
+    /**
+     * Cobra lo gastado en nanosEnBahia a consumoPorSegundo, descontando lo
+     * reservado al empezar.
+     */
+    public void cobrar(long reservado, long nanosEnBahia) {
+        long gasto = (long) (consumoPorSegundo * (nanosEnBahia / 1_000_000_000.0));
+        lock.lock();
+        try {
+            saldo = Math.min(capacidad, saldo + reservado - gasto);
+            despertar();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve una reserva que no se usó (el dron no llegó a cargar).
+     */
+    public void devolver(long reservado) {
+        cobrar(reservado, 0);
+    }
+
+    public long getSaldo() {
+        lock.lock();
+        try {
+            return saldo + pendiente.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Veces que la producción tomó el candado para pasar al saldo. */
+    public long getPublicaciones() { return publicaciones.sum(); }
+
+    /** Espera en ns de los drones que no encontraron energía al llegar. */
+    public HistogramaLatencia getEsperaEnergia() { return esperaEnergia; }
+
+    // Deben llamarse con lock tomado
+    private void incorporar() {
+        long producido = pendiente.getAndSet(0);
+        if (producido != 0) saldo = Math.min(capacidad, saldo + producido);
+    }
+
+    private boolean puedeEmpezar(boolean critico) {
+        return saldo >= minimoCarga && (critico || criticosEsperando == 0);
+    }
+
+    private void dejarDeEsperar(boolean critico) {
+        if (critico) criticosEsperando--;
+        else normalesEsperando--;
+        if (criticosEsperando + normalesEsperando == 0) faltante = 0;
+    }
+
+    private void despertar() {
+        // Lo pendiente puede ser justo lo que alguien espera y quizá no haya otro producir (de noche)
+        incorporar();
+        if (saldo < minimoCarga) {
+            if (criticosEsperando + normalesEsperando > 0) faltante = minimoCarga - saldo;
+            return;
+        }
+        faltante = 0;
+        if (criticosEsperando > 0) turnoCriticos.signal();
+        else if (normalesEsperando > 0) turnoNormales.signal();
+    }
+}
@@ -71,11 +71,11 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
     private void iniciarSimulacion() {
         if ("Semáforo".equals(tipoSincronizacion)) {
             BarberoSemaforo barbero = new BarberoSemaforo(barberiaSemaforo, this);
-            Thread hiloBarbero = new Thread(barbero);
+            Thread hiloBarbero = FabricaHilos.crear(barbero, "Barbero");
             hiloBarbero.start();
             hilos.add(hiloBarbero);
             
-            Thread generadorClientes = new Thread(() -> {
+            Thread generadorClientes = FabricaHilos.crear(() -> {
                 while (!Thread.currentThread().isInterrupted()) {
                     try {
                         Thread.sleep(random.nextInt(2000) + 1000); 
@@ -83,7 +83,7 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
                         // Crear nodo de cliente en el grafo
                         panelGrafo.crearNodoSiNoExiste("P-C" + clienteId, 50, 50 + (clienteId * 30) % 400, "Proceso", "C" + clienteId);
                         ClienteSemaforo cliente = new ClienteSemaforo(clienteId, barberiaSemaforo, this);
-                        Thread hiloCliente = new Thread(cliente);
+                        Thread hiloCliente = FabricaHilos.crear(cliente, "Cliente-" + clienteId);
                         hiloCliente.start();
                         hilos.add(hiloCliente);
                     } catch (InterruptedException e) {
@@ -91,23 +91,23 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
                         return;
                     }
                 }
-            });
+            }, "Generador-Clientes");
             generadorClientes.start();
             hilos.add(generadorClientes);
         } else if ("Monitores".equals(tipoSincronizacion)) {
             BarberoMonitores barbero = new BarberoMonitores(barberiaMonitores, this);
-            Thread hiloBarbero = new Thread(barbero);
+            Thread hiloBarbero = FabricaHilos.crear(barbero, "Barbero");
             hiloBarbero.start();
             hilos.add(hiloBarbero);
             
-            Thread generadorClientes = new Thread(() -> {
+            Thread generadorClientes = FabricaHilos.crear(() -> {
                 while (!Thread.currentThread().isInterrupted()) {
                     try {
                         Thread.sleep(random.nextInt(2000) + 1000); 
                         int clienteId = proximoClienteId++;
                         panelGrafo.crearNodoSiNoExiste("P-C" + clienteId, 50, 50 + (clienteId * 30) % 400, "Proceso", "C" + clienteId);
                         ClienteMonitores cliente = new ClienteMonitores(clienteId, barberiaMonitores, this);
-                        Thread hiloCliente = new Thread(cliente);
+                        Thread hiloCliente = FabricaHilos.crear(cliente, "Cliente-" + clienteId);
                         hiloCliente.start();
                         hilos.add(hiloCliente);
                     } catch (InterruptedException e) {
@@ -115,23 +115,23 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
                         return;
                     }
                 }
-            });
+            }, "Generador-Clientes");
             generadorClientes.start();
             hilos.add(generadorClientes);
         } else { // Mutex o Variable de Condición
             BarberoCondicion barbero = new BarberoCondicion(barberiaCondicion, this);
-            Thread hiloBarbero = new Thread(barbero);
+            Thread hiloBarbero = FabricaHilos.crear(barbero, "Barbero");
             hiloBarbero.start();
             hilos.add(hiloBarbero);
             
-            Thread generadorClientes = new Thread(() -> {
+            Thread generadorClientes = FabricaHilos.crear(() -> {
                 while (!Thread.currentThread().isInterrupted()) {
                     try {
                         Thread.sleep(random.nextInt(2000) + 1000); 
                         int clienteId = proximoClienteId++;
                         panelGrafo.crearNodoSiNoExiste("P-C" + clienteId, 50, 50 + (clienteId * 30) % 400, "Proceso", "C" + clienteId);
                         ClienteCondicion cliente = new ClienteCondicion(clienteId, barberiaCondicion, this);
-                        Thread hiloCliente = new Thread(cliente);
+                        Thread hiloCliente = FabricaHilos.crear(cliente, "Cliente-" + clienteId);
                         hiloCliente.start();
                         hilos.add(hiloCliente);
                     } catch (InterruptedException e) {
@@ -139,7 +139,7 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
                         return;
                     }
                 }
-            });
+            }, "Generador-Clientes");
             generadorClientes.start();
             hilos.add(generadorClientes);
         }
@@ -262,6 +262,16 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
     }
     
     // --- Clases de Sincronización (Modificadas para pasar el ID del cliente) ---
+
+    // Cierra y emite el evento JFR del barbero que despertó (no hace nada sin grabación)
+    private static void barberoDesperto(EventosJFR.BarberWoke evento, int clienteId, String algoritmo) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.cliente = clienteId;
+            evento.algoritmo = algoritmo;
+            evento.commit();
+        }
+    }
     
     private class BarberiaMonitores {
         private final ReentrantLock mutex = new ReentrantLock(); 
@@ -279,22 +289,30 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
         }
 
         public int cortarPelo() throws InterruptedException {
+            EventosJFR.BarberWoke evento = new EventosJFR.BarberWoke();
+            boolean durmio = false;
+            int clienteId;
             mutex.lock(); 
             try {
                 while (clientesEnEspera == 0) {
                     panel.actualizarEstado(true, true, 0, false, -1);
+                    if (!durmio) {
+                        evento.begin();
+                        durmio = true;
+                    }
                     barberoListo.await(); 
                 }
                 
                 clientesEnEspera--;
                 // (Se asume que el cliente que despertó es el que se atiende)
                 // Para un monitor real, necesitaríamos una cola (Queue) de IDs
-                int clienteId = clienteAtendidoId; // Tomar el ID guardado
+                clienteId = clienteAtendidoId; // Tomar el ID guardado
                 panel.actualizarEstado(true, false, clientesEnEspera, true, clienteId); 
-                return clienteId;
             } finally {
                 mutex.unlock(); 
             }
+            if (durmio) barberoDesperto(evento, clienteId, tipoSincronizacion);
+            return clienteId;
         }
 
         public boolean entrar(int id) throws InterruptedException {
@@ -398,20 +416,28 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
         }
 
         public int cortarPelo() throws InterruptedException {
+            EventosJFR.BarberWoke evento = new EventosJFR.BarberWoke();
+            boolean durmio = false;
+            int clienteId;
             mutex.lock(); 
             try {
                 while (clientesEnEspera == 0) {
                     panel.actualizarEstado(true, true, 0, false, -1);
+                    if (!durmio) {
+                        evento.begin();
+                        durmio = true;
+                    }
                     barberoListo.await(); 
                 }
                 
                 clientesEnEspera--;
-                int clienteId = clienteAtendidoId;
+                clienteId = clienteAtendidoId;
                 panel.actualizarEstado(true, false, clientesEnEspera, true, clienteId); 
-                return clienteId;
             } finally {
                 mutex.unlock(); 
             }
+            if (durmio) barberoDesperto(evento, clienteId, tipoSincronizacion);
+            return clienteId;
         }
 
         public boolean entrar(int id) throws InterruptedException {
@@ -512,7 +538,13 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
         }
 
         public int cortarPelo() throws InterruptedException {
-            clientes.acquire(); // Espera a un cliente
+            EventosJFR.BarberWoke evento = null;
+            if (!clientes.tryAcquire()) {
+                // No hay clientes: el barbero duerme
+                evento = new EventosJFR.BarberWoke();
+                evento.begin();
+                clientes.acquire(); // Espera a un cliente
+            }
             sillasAcceso.acquire();
             
             clientesEnEspera--;
@@ -521,8 +553,10 @@ public class BarberoDormilonPanel extends JPanel implements Simulable {
             panel.actualizarEstado(true, false, clientesEnEspera, true, clienteAtendidoId);
             
             barbero.release(); // Libera al cliente de la silla de espera
+            int clienteId = clienteAtendidoId;
             sillasAcceso.release();
-            return clienteAtendidoId;
+            if (evento != null) barberoDesperto(evento, clienteId, tipoSincronizacion);
+            return clienteId;
         }
 
         public boolean entrar(int id) throws InterruptedException {
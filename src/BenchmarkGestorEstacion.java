@@ -0,0 +1,297 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark sin Swing ni MPJ que llama directamente a
+ * GestorEstacion.solicitarRecarga / liberarBahia.
+ *
+ * A diferencia del ciclo de EstacionSolarMPJ.correrTrabajador, aquí no hay
+ * Thread.sleep ni envíos MPI dentro de la medición: sólo se mide el costo de
+ * la sincronización. Cada configuración corre una fase de calentamiento y
+ * una de medición, y se repite varias veces para ver la variación.
+ *
+ * La columna despertares_lib cuenta cuántas veces despertó un dron de await
+ * por cada bahía liberada (sólo aplica a los modos con monitor).
+ *
+ * Con observadores=ninguno,texto se ve cuánto cuesta el trabajo de la interfaz
+ * en cada aviso de la estación; como las estaciones avisan fuera de sus
+ * candados, ese trabajo no debería alargar las secciones críticas. Para ver cómo escala
+ * el despertar dirigido frente a signalAll:
+ *   java -cp build/classes BenchmarkGestorEstacion algoritmos=Monitores,MonitoresSignalAll hilos=4,16,64
+ *
+ * Curva de rendimiento contra el número de estaciones (cada una con sus
+ * bahías y su candado, ver ClusterEstaciones):
+ *   java -cp build/classes BenchmarkGestorEstacion algoritmos=Monitores estaciones=1,2,4,8 \
+ *        ruteo=menosCola,dosOpciones,afinidad bahias=1 hilos=16 salida=estaciones.csv
+ *
+ * Uso (desde la raíz del proyecto, después de compilar):
+ *   java -cp build/classes BenchmarkGestorEstacion [clave=valor ...]
+ *
+ * Claves (las listas van separadas por comas y se barren en producto cartesiano):
+ *   algoritmos=Monitores,Semaforos   tipoAlgoritmo de GestorEstacion (cualquiera de EstacionesCarga)
+ *   drones=16,256                    drones lógicos (ids distintos)
+ *   estaciones=1                     estaciones independientes (ClusterEstaciones)
+ *   ruteo=menosCola                  menosCola, dosOpciones o afinidad (si hay más de una)
+ *   bahias=1,3                       bahías de cada estación
+ *   criticos=0.3                     fracción de solicitudes críticas
+ *   hilos=4,16                       hilos que generan solicitudes
+ *   calentamiento=1000               ms de calentamiento por repetición
+ *   medicion=2000                    ms de medición por repetición
+ *   repeticiones=3                   repeticiones por configuración
+ *   trabajo=0                        iteraciones de CPU con la bahía tomada
+ *   observadores=ninguno             ninguno, o texto: arma los mismos mensajes que
+ *                                    los paneles para el grafo en cada aviso
+ *   estadisticas=no                  si: GestorEstacion guarda espera, servicio y cola
+ *                                    por clase y las imprime en stderr por repetición
+ *                                    (incluye el calentamiento)
+ *   salida=resultados.csv            copia opcional del CSV en archivo
+ */
+public class BenchmarkGestorEstacion {
+
+    private static final String ENCABEZADO =
+            "algoritmo,observador,drones,estaciones,ruteo,bahias,criticos,hilos,repeticion,ops_seg,media_us,p50_us,p99_us,p999_us,max_us,despertares_lib";
+
+    // Evita que el JIT elimine el trabajo simulado. Cada hilo acumula en una
+    // variable local (ObservadorTexto en un LongAdder) y sólo se publica aquí
+    // al terminar la repetición, así no agrega una línea de caché compartida
+    // a lo que se mide.
+    private static volatile long sumidero;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = leerOpciones(args);
+
+        String[] algoritmos = opciones.getOrDefault("algoritmos", "Monitores,Semaforos").split(",");
+        int[] drones = enteros(opciones.getOrDefault("drones", "16,256"));
+        int[] estaciones = enteros(opciones.getOrDefault("estaciones", "1"));
+        String[] ruteos = opciones.getOrDefault("ruteo", ClusterEstaciones.MENOS_COLA).split(",");
+        int[] bahias = enteros(opciones.getOrDefault("bahias", "1,3"));
+        double[] criticos = reales(opciones.getOrDefault("criticos", "0.3"));
+        int[] hilos = enteros(opciones.getOrDefault("hilos", "4,16"));
+        long calentamientoMs = Long.parseLong(opciones.getOrDefault("calentamiento", "1000"));
+        long medicionMs = Long.parseLong(opciones.getOrDefault("medicion", "2000"));
+        int repeticiones = Integer.parseInt(opciones.getOrDefault("repeticiones", "3"));
+        int trabajo = Integer.parseInt(opciones.getOrDefault("trabajo", "0"));
+        String[] observadores = opciones.getOrDefault("observadores", "ninguno").split(",");
+        boolean estadisticas = "si".equals(opciones.getOrDefault("estadisticas", "no"));
+        String salida = opciones.get("salida");
+
+        List<String> filas = new ArrayList<>();
+        System.out.println(ENCABEZADO);
+
+        for (String algoritmo : algoritmos) {
+            for (String observador : observadores) {
+                for (int numDrones : drones) {
+                    for (int numEstaciones : estaciones) {
+                        // Con una sola estación el ruteo no aplica
+                        String[] ruteosEstacion = numEstaciones == 1
+                                ? new String[] {ClusterEstaciones.MENOS_COLA} : ruteos;
+                        for (String ruteo : ruteosEstacion) {
+                            for (int numBahias : bahias) {
+                                for (double fraccionCriticos : criticos) {
+                                    for (int numHilos : hilos) {
+                                        for (int rep = 1; rep <= repeticiones; rep++) {
+                                            String fila = ejecutar(algoritmo.trim(), observador.trim(), numDrones,
+                                                    numEstaciones, ruteo.trim(), numBahias, fraccionCriticos,
+                                                    numHilos, rep, calentamientoMs, medicionMs, trabajo,
+                                                    estadisticas);
+                                            System.out.println(fila);
+                                            filas.add(fila);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        if (salida != null) {
+            try (PrintWriter out = new PrintWriter(new FileWriter(salida))) {
+                out.println(ENCABEZADO);
+                for (String fila : filas) {
+                    out.println(fila);
+                }
+            } catch (IOException e) {
+                System.err.println("No se pudo escribir " + salida + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String ejecutar(String algoritmo, String observador, int numDrones, int numEstaciones,
+                                   String ruteo, int numBahias, double fraccionCriticos, int numHilos, int repeticion, long calentamientoMs,
+                                   long medicionMs, int trabajo, boolean estadisticas)
+            throws InterruptedException {
+        // Cada hilo sólo tiene una solicitud en curso y usa ids disjuntos,
+        // así nunca hay dos solicitudes vivas con el mismo id de dron.
+        int dronesEfectivos = Math.max(numDrones, numHilos);
+
+        ObservadorTexto texto = "texto".equals(observador) ? new ObservadorTexto() : null;
+        ClusterEstaciones estacion = new ClusterEstaciones(numEstaciones, numBahias, algoritmo, ruteo,
+                texto != null ? texto : ObservadorEstacion.NINGUNO, estadisticas);
+        Fase fase = new Fase();
+        HistogramaLatencia[] latencias = new HistogramaLatencia[numHilos];
+        long[] operaciones = new long[numHilos];
+        long[] sumideros = new long[numHilos];
+        CountDownLatch listos = new CountDownLatch(numHilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        Thread[] trabajadores = new Thread[numHilos];
+
+        for (int h = 0; h < numHilos; h++) {
+            final int indiceHilo = h;
+            latencias[h] = new HistogramaLatencia();
+            trabajadores[h] = new Thread(() -> {
+                HistogramaLatencia latencia = latencias[indiceHilo];
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                int idDron = indiceHilo;
+                long ops = 0;
+                long sumideroLocal = 0;
+                listos.countDown();
+                try {
+                    inicio.await();
+                    int estado;
+                    while ((estado = fase.valor) != Fase.FIN) {
+                        boolean critico = rand.nextDouble() < fraccionCriticos;
+                        long t0 = System.nanoTime();
+                        int asignada = estacion.solicitarRecarga(idDron, critico);
+                        long espera = System.nanoTime() - t0;
+                        if (trabajo > 0) {
+                            sumideroLocal += consumirCpu(trabajo);
+                        }
+                        estacion.liberarBahia(asignada, idDron);
+                        if (estado == Fase.MEDICION) {
+                            latencia.registrar(espera);
+                            ops++;
+                        }
+                        idDron += numHilos;
+                        if (idDron >= dronesEfectivos) idDron = indiceHilo;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                operaciones[indiceHilo] = ops;
+                sumideros[indiceHilo] = sumideroLocal;
+            }, "Bench-" + algoritmo + "-" + h);
+            trabajadores[h].start();
+        }
+
+        listos.await();
+        inicio.countDown();
+        Thread.sleep(calentamientoMs);
+        fase.valor = Fase.MEDICION;
+        long t0 = System.nanoTime();
+        long despertaresInicio = estacion.getDespertares();
+        long liberacionesInicio = estacion.getRecargas();
+        Thread.sleep(medicionMs);
+        fase.valor = Fase.FIN;
+        long duracionNs = System.nanoTime() - t0;
+        long despertares = estacion.getDespertares() - despertaresInicio;
+        long liberaciones = estacion.getRecargas() - liberacionesInicio;
+
+        for (Thread t : trabajadores) {
+            t.join();
+        }
+        long acumulado = texto != null ? texto.caracteres.sum() : 0;
+        for (long s : sumideros) acumulado += s;
+        sumidero = acumulado;
+        if (estadisticas) {
+            System.err.println(algoritmo + " estaciones=" + numEstaciones + " ruteo=" + ruteo
+                    + " hilos=" + numHilos + " rep=" + repeticion);
+            System.err.println(estacion.resumenEstadisticas());
+        }
+
+        HistogramaLatencia total = new HistogramaLatencia();
+        long totalOps = 0;
+        for (int h = 0; h < numHilos; h++) {
+            total.sumar(latencias[h]);
+            totalOps += operaciones[h];
+        }
+        double opsSeg = totalOps / (duracionNs / 1_000_000_000.0);
+        double despertaresPorLiberacion = liberaciones == 0 ? 0 : (double) despertares / liberaciones;
+
+        return String.format(Locale.ROOT, "%s,%s,%d,%d,%s,%d,%.2f,%d,%d,%.0f,%.2f,%.2f,%.2f,%.2f,%.2f,%.3f",
+                algoritmo, observador, numDrones, numEstaciones, ruteo, numBahias, fraccionCriticos, numHilos, repeticion, opsSeg,
+                total.getMedia() / 1_000.0, total.percentil(50) / 1_000.0, total.percentil(99) / 1_000.0,
+                total.percentil(99.9) / 1_000.0, total.getMaximo() / 1_000.0, despertaresPorLiberacion);
+    }
+
+    private static long consumirCpu(int iteraciones) {
+        long x = iteraciones;
+        for (int i = 0; i < iteraciones; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+
+    // Arma los mismos textos que ObservadorGrafoEstacion, sin Swing. Lo llaman
+    // todos los hilos: el largo de los textos va a un LongAdder, no al sumidero.
+    private static class ObservadorTexto implements ObservadorEstacion {
+        final LongAdder caracteres = new LongAdder();
+
+        @Override
+        public void solicitud(int idDron, boolean critico) {
+            caracteres.add(("Dron" + idDron + " solicita recarga (critico:" + critico + ")").length());
+        }
+
+        @Override
+        public void asignada(int idDron) {
+            caracteres.add(("Bahía asignada a Dron" + idDron).length());
+        }
+
+        @Override
+        public void liberada(int idDron) {
+            caracteres.add(("Bahía liberada por Dron" + idDron).length());
+        }
+
+        @Override
+        public void bahiasDisponibles(int bahias) {
+            caracteres.add(("Bahías: " + bahias).length());
+        }
+    }
+
+    // Fase compartida por todos los hilos de una repetición
+    private static class Fase {
+        static final int CALENTAMIENTO = 0;
+        static final int MEDICION = 1;
+        static final int FIN = 2;
+        volatile int valor = CALENTAMIENTO;
+    }
+
+    static Map<String, String> leerOpciones(String[] args) {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual).trim(), arg.substring(igual + 1).trim());
+            }
+        }
+        return opciones;
+    }
+
+    static int[] enteros(String lista) {
+        String[] partes = lista.split(",");
+        int[] valores = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            valores[i] = Integer.parseInt(partes[i].trim());
+        }
+        return valores;
+    }
+
+    static double[] reales(String lista) {
+        String[] partes = lista.split(",");
+        double[] valores = new double[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            valores[i] = Double.parseDouble(partes[i].trim());
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara hilos de plataforma contra hilos virtuales con muchos drones
+ * compartiendo un solo GestorEstacion. Cada dron vuela (sleep), pide bahía,
+ * carga y la libera durante varios ciclos. Se reporta lado a lado el tiempo,
+ * las recargas por segundo, la memoria pico (heap y RSS del proceso) y los
+ * hilos vivos, más el resumen de DetectorPinning para el modo virtual.
+ *
+ * Uso:
+ *   java -cp build/classes BenchmarkHilosVirtuales [clave=valor ...]
+ *
+ *   modos=plataforma,virtual   drones=1000,10000   bahias=8   algoritmo=Monitores
+ *   ciclos=3   vuelo=50 (ms máx. de vuelo)   carga=0 (ms de carga)   criticos=0.3
+ *
+ * Con potencia>0 la estación usa un BalanceEnergia: un productor sigue la
+ * curva solar (pico de potencia unidades/s, día de dia ms) y cada bahía
+ * gasta consumo unidades/s; al terminar cada corrida se imprime en stderr la
+ * espera por energía y cuántas veces el productor tomó el candado.
+ *   potencia=0   dia=10000   consumo=100   minimo=10 (para empezar una carga)
+ *   bateria=1000 (capacidad)   lote=100 (producción que se junta sin candado)
+ *
+ * Con maxEspera>0 los drones piden con tryRecarga (GestorEstacion.setAdmision):
+ * si los rechazan, los descartan o vence el plazo esperan lo sugerido y ese
+ * ciclo se pierde. Al final se imprime en stderr la espera por clase y los
+ * rechazos.
+ *   maxEspera=0   reserva=0 (lugares sólo para críticos)   plazo=1000 (ms)
+ *   admision=rechazar (o descartarAntiguo, ver PoliticaAdmision)
+ *
+ * Para 100000 drones conviene correr sólo el modo virtual (modos=virtual):
+ * con hilos de plataforma el sistema suele quedarse sin hilos nativos.
+ */
+public class BenchmarkHilosVirtuales {
+
+    private static final Path STATUS = Paths.get("/proc/self/status");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = BenchmarkGestorEstacion.leerOpciones(args);
+        String[] modos = opciones.getOrDefault("modos", "plataforma,virtual").split(",");
+        int[] drones = BenchmarkGestorEstacion.enteros(opciones.getOrDefault("drones", "1000,10000"));
+        int bahias = Integer.parseInt(opciones.getOrDefault("bahias", "8"));
+        String algoritmo = opciones.getOrDefault("algoritmo", "Monitores");
+        int ciclos = Integer.parseInt(opciones.getOrDefault("ciclos", "3"));
+        int vueloMs = Integer.parseInt(opciones.getOrDefault("vuelo", "50"));
+        int cargaMs = Integer.parseInt(opciones.getOrDefault("carga", "0"));
+        double criticos = Double.parseDouble(opciones.getOrDefault("criticos", "0.3"));
+        Energia energia = new Energia(opciones);
+        Admision admision = new Admision(opciones);
+
+        System.out.println("modo,drones,segundos,recargas_seg,heap_pico_mb,rss_pico_mb,hilos_pico,eventos_pinning");
+        for (String modo : modos) {
+            boolean virtual = "virtual".equalsIgnoreCase(modo.trim());
+            FabricaHilos.setHilosVirtuales(virtual);
+            for (int numDrones : drones) {
+                DetectorPinning.reiniciar();
+                System.out.println(ejecutar(virtual, numDrones, bahias, algoritmo, ciclos, vueloMs, cargaMs, criticos,
+                        energia, admision));
+            }
+        }
+        FabricaHilos.setHilosVirtuales(false);
+        System.out.println();
+        System.out.println(DetectorPinning.reporte());
+        DetectorPinning.detener();
+    }
+
+    private static String ejecutar(boolean virtual, int numDrones, int bahias, String algoritmo, int ciclos,
+                                   int vueloMs, int cargaMs, double criticos, Energia energia,
+                                   Admision admision) throws InterruptedException {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean hilosMx = ManagementFactory.getThreadMXBean();
+        System.gc();
+
+        GestorEstacion estacion = new GestorEstacion(bahias, algoritmo, ObservadorEstacion.NINGUNO, true);
+        if (admision.maxEspera > 0) estacion.setAdmision(admision.maxEspera, admision.reserva, admision.politica);
+        BalanceEnergia balance = null;
+        Thread productor = null;
+        if (energia.potencia > 0) {
+            balance = new BalanceEnergia(energia.bateria, energia.minimo, energia.consumo, energia.minimo,
+                    energia.lote);
+            estacion.setBalanceEnergia(balance);
+            productor = new Thread(new BalanceEnergia.ProductorSolar(balance, energia.diaMs, energia.potencia, 10),
+                    "Productor-Solar");
+            productor.setDaemon(true);
+            productor.start();
+        }
+        CountDownLatch terminados = new CountDownLatch(numDrones);
+        Muestreo muestreo = new Muestreo(memoria, hilosMx);
+        Thread muestreador = new Thread(muestreo, "Muestreo-Memoria");
+        muestreador.setDaemon(true);
+        muestreador.start();
+
+        List<Thread> hilos = new ArrayList<>(numDrones);
+        long inicio = System.nanoTime();
+        try {
+            for (int i = 0; i < numDrones; i++) {
+                final int idDron = i;
+                Thread dron = FabricaHilos.crear(() -> {
+                    ThreadLocalRandom rand = ThreadLocalRandom.current();
+                    try {
+                        for (int c = 0; c < ciclos; c++) {
+                            Thread.sleep(rand.nextInt(vueloMs + 1));
+                            boolean critico = rand.nextDouble() < criticos;
+                            if (admision.maxEspera > 0) {
+                                GestorEstacion.Resultado r = estacion.tryRecarga(idDron, critico, admision.plazoMs,
+                                        TimeUnit.MILLISECONDS);
+                                if (!r.isConcedida()) {
+                                    Thread.sleep(r.getReintentarEnMs());
+                                    continue;
+                                }
+                            } else {
+                                estacion.solicitarRecarga(idDron, critico);
+                            }
+                            if (cargaMs > 0) Thread.sleep(cargaMs);
+                            estacion.liberarBahia(idDron);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        terminados.countDown();
+                    }
+                }, "Dron-" + i);
+                dron.start();
+                hilos.add(dron);
+            }
+        } catch (OutOfMemoryError e) {
+            // Típico con hilos de plataforma: "unable to create native thread"
+            for (Thread t : hilos) t.interrupt();
+            if (productor != null) productor.interrupt();
+            muestreo.activo = false;
+            return String.format(Locale.ROOT, "%s,%d,fallo (%d hilos creados: %s),,,,,",
+                    virtual ? "virtual" : "plataforma", numDrones, hilos.size(), e.getMessage());
+        }
+        terminados.await();
+        long duracionNs = System.nanoTime() - inicio;
+        muestreo.activo = false;
+        muestreador.join();
+        if (productor != null) {
+            productor.interrupt();
+            productor.join();
+            System.err.println(String.format(Locale.ROOT, "energia %s drones=%d saldo=%d publicaciones=%d espera[%s]",
+                    virtual ? "virtual" : "plataforma", numDrones, balance.getSaldo(), balance.getPublicaciones(),
+                    balance.getEsperaEnergia().resumen()));
+        }
+        if (admision.maxEspera > 0) {
+            System.err.println(String.format(Locale.ROOT,
+                    "admision %s %s drones=%d rechazos=%d/%d vencidas=%d/%d (criticos/normales) descartadas=%d",
+                    admision.politica, virtual ? "virtual" : "plataforma", numDrones, estacion.getRechazos(true),
+                    estacion.getRechazos(false), estacion.getVencidas(true), estacion.getVencidas(false),
+                    estacion.getDescartadas()));
+            System.err.println(estacion.resumenEstadisticas());
+        }
+
+        double segundos = duracionNs / 1_000_000_000.0;
+        return String.format(Locale.ROOT, "%s,%d,%.2f,%.0f,%.1f,%.1f,%d,%d",
+                virtual ? "virtual" : "plataforma", numDrones, segundos, estacion.getRecargas() / segundos,
+                muestreo.heapPico / 1_048_576.0, muestreo.rssPico / 1_048_576.0, muestreo.hilosPico,
+                DetectorPinning.getEventos());
+    }
+
+    // Opciones del balance de energía (potencia=0: sin balance)
+    private static class Energia {
+        final double potencia;
+        final long diaMs;
+        final long consumo;
+        final long minimo;
+        final long bateria;
+        final long lote;
+
+        Energia(Map<String, String> opciones) {
+            potencia = Double.parseDouble(opciones.getOrDefault("potencia", "0"));
+            diaMs = Long.parseLong(opciones.getOrDefault("dia", "10000"));
+            consumo = Long.parseLong(opciones.getOrDefault("consumo", "100"));
+            minimo = Long.parseLong(opciones.getOrDefault("minimo", "10"));
+            bateria = Long.parseLong(opciones.getOrDefault("bateria", "1000"));
+            lote = Long.parseLong(opciones.getOrDefault("lote", "100"));
+        }
+    }
+
+    // Opciones del control de admisión (maxEspera=0: sin admisión)
+    private static class Admision {
+        final int maxEspera;
+        final int reserva;
+        final long plazoMs;
+        final String politica;
+
+        Admision(Map<String, String> opciones) {
+            maxEspera = Integer.parseInt(opciones.getOrDefault("maxEspera", "0"));
+            reserva = Integer.parseInt(opciones.getOrDefault("reserva", "0"));
+            plazoMs = Long.parseLong(opciones.getOrDefault("plazo", "1000"));
+            politica = opciones.getOrDefault("admision", PoliticaAdmision.RECHAZAR);
+        }
+    }
+
+    // Toma muestras de memoria y número de hilos cada 20 ms
+    private static class Muestreo implements Runnable {
+        private final MemoryMXBean memoria;
+        private final ThreadMXBean hilos;
+        volatile boolean activo = true;
+        long heapPico;
+        long rssPico;
+        int hilosPico;
+
+        Muestreo(MemoryMXBean memoria, ThreadMXBean hilos) {
+            this.memoria = memoria;
+            this.hilos = hilos;
+        }
+
+        @Override
+        public void run() {
+            while (activo) {
+                heapPico = Math.max(heapPico, memoria.getHeapMemoryUsage().getUsed());
+                rssPico = Math.max(rssPico, leerRss());
+                hilosPico = Math.max(hilosPico, hilos.getThreadCount());
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // VmRSS de /proc (sólo Linux); 0 si no está disponible
+    private static long leerRss() {
+        try {
+            for (String linea : Files.readAllLines(STATUS)) {
+                if (linea.startsWith("VmRSS:")) {
+                    String kb = linea.substring(6).trim().split("\\s+")[0];
+                    return Long.parseLong(kb) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // sin /proc: se reporta 0
+        }
+        return 0;
+    }
+}
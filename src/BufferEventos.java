@@ -0,0 +1,182 @@
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffer circular de eventos de simulación guardados como primitivos.
+ *
+ * Cada evento es (algoritmo, tipo, idDron, marca de tiempo, valor) y vive en
+ * arreglos preasignados, así publicar no crea objetos ni cadenas. Admite
+ * varios productores y un solo consumidor: el productor reserva una posición
+ * con un incremento atómico y la publica escribiendo la secuencia de la
+ * casilla, como en la cola de Vyukov.
+ * El consumidor lee los eventos en su lugar con un Lector; los textos para la
+ * interfaz se arman después, sólo para lo que se muestra.
+ *
+ * Las casillas libres se cuentan con un semáforo. Con el buffer lleno,
+ * publicar descarta el evento (se cuenta en getDescartados) y
+ * publicarEsperando bloquea al productor hasta que el consumidor haga lugar.
+ * El consumidor no sondea: esperar lo estaciona hasta que llegue un evento o
+ * hasta que el productor llame a cerrar.
+ */
+public class BufferEventos {
+
+    /**
+     * Recibe cada evento durante drenar. Los valores no deben guardarse por referencia.
+     */
+    public interface Lector {
+        void leer(int algoritmo, int tipo, int idDron, long marca, int valor);
+    }
+
+    private final int[] algoritmos;
+    private final int[] tipos;
+    private final int[] drones;
+    private final int[] valores;
+    private final long[] marcas;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+    private final AtomicLong cola = new AtomicLong();
+    private long cabeza; // sólo la toca el consumidor
+    private final Semaphore espacio;
+    private volatile Thread consumidor; // no nulo mientras el consumidor espera
+    private volatile boolean cerrado;
+
+    private final LongAdder publicados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+
+    public BufferEventos(int capacidad) {
+        int tam = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        algoritmos = new int[tam];
+        tipos = new int[tam];
+        drones = new int[tam];
+        valores = new int[tam];
+        marcas = new long[tam];
+        secuencias = new AtomicLongArray(tam);
+        for (int i = 0; i < tam; i++) {
+            secuencias.set(i, i);
+        }
+        mascara = tam - 1;
+        espacio = new Semaphore(tam);
+    }
+
+    public boolean publicar(int algoritmo, int tipo, int idDron, int valor) {
+        return publicar(algoritmo, tipo, idDron, System.currentTimeMillis(), valor);
+    }
+
+    public boolean publicar(int algoritmo, int tipo, int idDron, long marca, int valor) {
+        if (!espacio.tryAcquire()) {
+            descartados.increment();
+            return false;
+        }
+        escribir(algoritmo, tipo, idDron, marca, valor);
+        return true;
+    }
+
+    /**
+     * Como publicar, pero si el buffer está lleno espera a que haya lugar.
+     */
+    public void publicarEsperando(int algoritmo, int tipo, int idDron, int valor) throws InterruptedException {
+        espacio.acquire();
+        escribir(algoritmo, tipo, idDron, System.currentTimeMillis(), valor);
+    }
+
+    // Con un permiso de espacio tomado la casilla de la posición reservada ya está libre
+    private void escribir(int algoritmo, int tipo, int idDron, long marca, int valor) {
+        long pos = cola.getAndIncrement();
+        int i = (int) pos & mascara;
+        algoritmos[i] = algoritmo;
+        tipos[i] = tipo;
+        drones[i] = idDron;
+        marcas[i] = marca;
+        valores[i] = valor;
+        secuencias.set(i, pos + 1);
+        publicados.increment();
+        Thread esperando = consumidor;
+        if (esperando != null) {
+            LockSupport.unpark(esperando);
+        }
+    }
+
+    /**
+     * Estaciona al consumidor hasta que haya eventos o alguien llame a despertar.
+     * Puede regresar con el buffer vacío; quien llama vuelve a revisar su condición.
+     */
+    public void esperar() throws InterruptedException {
+        consumidor = Thread.currentThread();
+        try {
+            if (estaVacio() && !cerrado) {
+                LockSupport.park(this);
+            }
+        } finally {
+            consumidor = null;
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Despierta al consumidor si está esperando (por ejemplo, al detener la simulación).
+     */
+    public void despertar() {
+        Thread esperando = consumidor;
+        if (esperando != null) {
+            LockSupport.unpark(esperando);
+        }
+    }
+
+    /**
+     * Avisa que ya no se publicará nada más y despierta al consumidor. Después
+     * de cerrar, esperar ya no estaciona; el consumidor termina de drenar y sale.
+     */
+    public void cerrar() {
+        cerrado = true;
+        despertar();
+    }
+
+    public boolean estaCerrado() {
+        return cerrado;
+    }
+
+    /**
+     * Entrega en orden todos los eventos ya publicados. Sólo debe llamarla el consumidor.
+     * @return cuántos eventos se entregaron
+     */
+    public int drenar(Lector lector) {
+        return drenar(lector, Integer.MAX_VALUE);
+    }
+
+    public int drenar(Lector lector, int maximo) {
+        int entregados = 0;
+        while (entregados < maximo) {
+            int i = (int) cabeza & mascara;
+            if (secuencias.get(i) != cabeza + 1) break;
+            lector.leer(algoritmos[i], tipos[i], drones[i], marcas[i], valores[i]);
+            secuencias.set(i, cabeza + algoritmos.length);
+            cabeza++;
+            entregados++;
+        }
+        if (entregados > 0) {
+            espacio.release(entregados);
+        }
+        return entregados;
+    }
+
+    public boolean estaVacio() {
+        return secuencias.get((int) cabeza & mascara) != cabeza + 1;
+    }
+
+    public int getCapacidad() {
+        return algoritmos.length;
+    }
+
+    public long getPublicados() {
+        return publicados.sum();
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+}
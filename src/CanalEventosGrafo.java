@@ -0,0 +1,114 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canal de eventos entre los hilos de simulación y PanelGrafoDinamico.
+ *
+ * Es un buffer circular acotado de varios productores y un consumidor (el EDT),
+ * con una secuencia por casilla como en la cola de Vyukov: el productor reserva
+ * una posición con CAS, llena la casilla y la publica escribiendo su secuencia.
+ * Las casillas se reutilizan, así publicar un evento no crea objetos.
+ *
+ * Si el buffer está lleno, publicar regresa false y quien publica decide si
+ * reintenta o descarta el evento.
+ */
+class CanalEventosGrafo {
+
+    static final int INICIALIZAR = 0;
+    static final int CREAR_NODO = 1;
+    static final int REMOVER_NODO = 2;
+    static final int INFO_NODO = 3;
+    static final int SOLICITUD = 4;
+    static final int ASIGNACION = 5;
+    static final int REMOVER_FLECHAS = 6;
+
+    /**
+     * Casilla del buffer. Sólo es válida durante la llamada a Receptor.recibir.
+     */
+    static final class Evento {
+        int tipo;
+        String a;
+        String b;
+        String tipoNodo;
+        String etiqueta;
+        int x;
+        int y;
+    }
+
+    interface Receptor {
+        void recibir(Evento evento);
+    }
+
+    private final Evento[] casillas;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+    private final AtomicLong cola = new AtomicLong();
+    private long cabeza; // sólo la toca el consumidor
+
+    private final LongAdder publicados = new LongAdder();
+
+    CanalEventosGrafo(int capacidad) {
+        int tam = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        casillas = new Evento[tam];
+        secuencias = new AtomicLongArray(tam);
+        for (int i = 0; i < tam; i++) {
+            casillas[i] = new Evento();
+            secuencias.set(i, i);
+        }
+        mascara = tam - 1;
+    }
+
+    boolean publicar(int tipo, String a, String b) {
+        return publicar(tipo, a, b, null, null, 0, 0);
+    }
+
+    boolean publicar(int tipo, String a, String b, String tipoNodo, String etiqueta, int x, int y) {
+        long pos;
+        while (true) {
+            pos = cola.get();
+            long diferencia = secuencias.get((int) pos & mascara) - pos;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(pos, pos + 1)) break;
+            } else if (diferencia < 0) {
+                return false;
+            }
+            // diferencia > 0: otro productor ya tomó esta posición
+        }
+        int i = (int) pos & mascara;
+        Evento e = casillas[i];
+        e.tipo = tipo;
+        e.a = a;
+        e.b = b;
+        e.tipoNodo = tipoNodo;
+        e.etiqueta = etiqueta;
+        e.x = x;
+        e.y = y;
+        secuencias.set(i, pos + 1);
+        publicados.increment();
+        return true;
+    }
+
+    /**
+     * Entrega en orden los eventos ya publicados. Sólo debe llamarla el consumidor.
+     * @return cuántos eventos se entregaron
+     */
+    int drenar(Receptor receptor) {
+        int entregados = 0;
+        while (true) {
+            int i = (int) cabeza & mascara;
+            if (secuencias.get(i) != cabeza + 1) break;
+            Evento e = casillas[i];
+            receptor.recibir(e);
+            e.a = e.b = e.tipoNodo = e.etiqueta = null;
+            secuencias.set(i, cabeza + casillas.length);
+            cabeza++;
+            entregados++;
+        }
+        return entregados;
+    }
+
+    long getPublicados() {
+        return publicados.sum();
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aviso para sacar de la cola de una EstacionCarga a un dron que espera
+ * bahía, desde otro hilo y sin interrumpir el del dron. GestorEstacion la usa
+ * para descartar normales (PoliticaAdmision.DESCARTAR_ANTIGUO) y
+ * ClusterEstaciones para pasar un dron a una estación con bahía libre.
+ *
+ * Cada solicitud tiene la suya y termina de una sola forma: concedida o
+ * cancelada. La estrategia llama a conceder() al tomar la bahía, dentro de
+ * su candado si tiene; si falla, al dron lo cancelaron: devuelve la bahía y
+ * sale de la cola sin ella. Así cancelar() sólo devuelve true si el dron de
+ * verdad se queda sin bahía.
+ *
+ * Para que el dron se entere mientras duerme, la estrategia registra con
+ * alCancelar cómo despertarlo y después vuelve a mirar cancelada() antes de
+ * dormirse: o cancelar() ve el despertador, o el dron ve el aviso.
+ */
+final class Cancelacion {
+    private static final int ESPERANDO = 0;
+    private static final int CONCEDIDA = 1;
+    private static final int CANCELADA = 2;
+
+    private final AtomicInteger estado = new AtomicInteger(ESPERANDO);
+    private volatile Runnable despertar;
+
+    /**
+     * Saca al dron de la cola; false si ya tenía su bahía o ya estaba
+     * cancelado.
+     */
+    boolean cancelar() {
+        if (!estado.compareAndSet(ESPERANDO, CANCELADA)) return false;
+        Runnable d = despertar;
+        if (d != null) d.run();
+        return true;
+    }
+
+    boolean cancelada() {
+        return estado.get() == CANCELADA;
+    }
+
+    // Lo llama la estrategia al tomar la bahía; false si llegó a cancelarse antes
+    boolean conceder() {
+        return estado.compareAndSet(ESPERANDO, CONCEDIDA);
+    }
+
+    // Lo llama la estrategia antes de dormir al dron por primera vez
+    void alCancelar(Runnable despertar) {
+        this.despertar = despertar;
+    }
+}
@@ -58,24 +58,24 @@ public class CenaFilosofosPanel extends JPanel implements Simulable {
                 Tenedor tenedorIzquierdo = tenedores[i];
                 Tenedor tenedorDerecho = tenedores[(i + 1) % NUM_FILOSOFOS];
                 FilosofoSemaforo f = new FilosofoSemaforo(i, tenedorIzquierdo, tenedorDerecho, this, sala, panelGrafo);
-                new Thread(f).start();
+                hilos.add(FabricaHilos.iniciar(f, "Filosofo-" + i));
             }
         } else if ("Variable de Condición".equals(tipoSincronizacion)) {
             for (int i = 0; i < NUM_FILOSOFOS; i++) {
                 FilosofoCondicion f = new FilosofoCondicion(i, monitorMesaCondicion, this);
-                new Thread(f).start();
+                hilos.add(FabricaHilos.iniciar(f, "Filosofo-" + i));
             }
         } else if ("Monitores".equals(tipoSincronizacion)) {
              for (int i = 0; i < NUM_FILOSOFOS; i++) {
                 FilosofoMonitores f = new FilosofoMonitores(i, monitorMesaMonitores, this);
-                new Thread(f).start();
+                hilos.add(FabricaHilos.iniciar(f, "Filosofo-" + i));
             }
         } else { // Mutex
             for (int i = 0; i < NUM_FILOSOFOS; i++) {
                 Tenedor tenedorIzquierdo = tenedores[i];
                 Tenedor tenedorDerecho = tenedores[(i + 1) % NUM_FILOSOFOS];
                 Filosofo f = new Filosofo(i, tenedorIzquierdo, tenedorDerecho, this, panelGrafo);
-                new Thread(f).start();
+                hilos.add(FabricaHilos.iniciar(f, "Filosofo-" + i));
             }
         }
     }
@@ -181,6 +181,17 @@ public class CenaFilosofosPanel extends JPanel implements Simulable {
     }
 
 
+    // Cierra y emite el evento JFR de un tenedor obtenido (no hace nada sin grabación)
+    private static void tenedorTomado(EventosJFR.ForkAcquired evento, int filosofo, int tenedor, String algoritmo) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.filosofo = filosofo;
+            evento.tenedor = tenedor;
+            evento.algoritmo = algoritmo;
+            evento.commit();
+        }
+    }
+
     private static class Tenedor {
         public final ReentrantLock mutex; 
         public final Semaphore semaforo;
@@ -234,6 +245,10 @@ public class CenaFilosofosPanel extends JPanel implements Simulable {
         }
         
         public void tomarTenedores(int i, CenaFilosofosPanel panel) throws InterruptedException {
+            EventosJFR.ForkAcquired eventoIzquierdo = new EventosJFR.ForkAcquired();
+            EventosJFR.ForkAcquired eventoDerecho = new EventosJFR.ForkAcquired();
+            eventoIzquierdo.begin();
+            eventoDerecho.begin();
             lock.lock();
             try {
                 estado[i] = Estado.HAMBRIENTO;
@@ -249,6 +264,9 @@ public class CenaFilosofosPanel extends JPanel implements Simulable {
             } finally {
                 lock.unlock();
             }
+            // Los dos tenedores se obtienen juntos en test()
+            tenedorTomado(eventoIzquierdo, i, izquierda(i), tipoSincronizacion);
+            tenedorTomado(eventoDerecho, i, derecha(i), tipoSincronizacion);
         }
         
         public void dejarTenedores(int i, CenaFilosofosPanel panel) {
@@ -309,6 +327,10 @@ public class CenaFilosofosPanel extends JPanel implements Simulable {
         }
         
         public void tomarTenedores(int i, CenaFilosofosPanel panel) throws InterruptedException {
+            EventosJFR.ForkAcquired eventoIzquierdo = new EventosJFR.ForkAcquired();
+            EventosJFR.ForkAcquired eventoDerecho = new EventosJFR.ForkAcquired();
+            eventoIzquierdo.begin();
+            eventoDerecho.begin();
             lock.lock();
             try {
                 estado[i] = Estado.HAMBRIENTO;
@@ -323,6 +345,9 @@ public class CenaFilosofosPanel extends JPanel implements Simulable {
             } finally {
                 lock.unlock();
             }
+            // Los dos tenedores se obtienen juntos en test()
+            tenedorTomado(eventoIzquierdo, i, izquierda(i), tipoSincronizacion);
+            tenedorTomado(eventoDerecho, i, derecha(i), tipoSincronizacion);
         }
         
         public void dejarTenedores(int i, CenaFilosofosPanel panel) {
@@ -468,13 +493,19 @@ public class CenaFilosofosPanel extends JPanel implements Simulable {
             }
 
             panelGrafo.setFlechaSolicitud("P" + id, "R" + primerTenedor.id);
+            EventosJFR.ForkAcquired evento = new EventosJFR.ForkAcquired();
+            evento.begin();
             primerTenedor.mutex.lock(); 
+            tenedorTomado(evento, id, primerTenedor.id, "Mutex");
             panel.setTenedorEnUso(primerTenedor.id, true);
             panelGrafo.setFlechaAsignacion("P" + id, "R" + primerTenedor.id);
             
             try {
                 panelGrafo.setFlechaSolicitud("P" + id, "R" + segundoTenedor.id);
+                EventosJFR.ForkAcquired eventoSegundo = new EventosJFR.ForkAcquired();
+                eventoSegundo.begin();
                 if (segundoTenedor.mutex.tryLock()) { 
+                    tenedorTomado(eventoSegundo, id, segundoTenedor.id, "Mutex");
                     panel.setTenedorEnUso(segundoTenedor.id, true);
                     panelGrafo.setFlechaAsignacion("P" + id, "R" + segundoTenedor.id);
                     
@@ -539,12 +570,18 @@ public class CenaFilosofosPanel extends JPanel implements Simulable {
                 sala.acquire();
 
                 panelGrafo.setFlechaSolicitud("P" + id, "R" + tenedorIzquierdo.id);
+                EventosJFR.ForkAcquired eventoIzquierdo = new EventosJFR.ForkAcquired();
+                eventoIzquierdo.begin();
                 tenedorIzquierdo.semaforo.acquire();
+                tenedorTomado(eventoIzquierdo, id, tenedorIzquierdo.id, panel.tipoSincronizacion);
                 panel.setTenedorEnUso(tenedorIzquierdo.id, true);
                 panelGrafo.setFlechaAsignacion("P" + id, "R" + tenedorIzquierdo.id);
 
                 panelGrafo.setFlechaSolicitud("P" + id, "R" + tenedorDerecho.id);
+                EventosJFR.ForkAcquired eventoDerecho = new EventosJFR.ForkAcquired();
+                eventoDerecho.begin();
                 tenedorDerecho.semaforo.acquire();
+                tenedorTomado(eventoDerecho, id, tenedorDerecho.id, panel.tipoSincronizacion);
                 panel.setTenedorEnUso(tenedorDerecho.id, true);
                 panelGrafo.setFlechaAsignacion("P" + id, "R" + tenedorDerecho.id);
 
@@ -0,0 +1,250 @@
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Varias estaciones independientes, cada una un GestorEstacion con sus
+ * propias bahías, candado y colas de prioridad. Cada solicitud se manda a
+ * una sola estación, así la contención de cada candado baja con el número
+ * de estaciones.
+ *
+ * Ruteo (la carga de una estación es cuántos drones tiene, esperando o
+ * cargando):
+ *   menosCola    la estación con menos carga (recorre todas)
+ *   dosOpciones  la menos cargada de dos al azar
+ *   afinidad     siempre la misma estación para el mismo dron
+ * Desvío al llegar: si la estación elegida (por dosOpciones o afinidad) no
+ * tiene bahía libre y otra sí, el dron va a la otra.
+ * Robo de trabajo (-Destacion.robo=false lo apaga): cuando una estación
+ * libera una bahía y queda con bahías de sobra, se trae al último dron en
+ * llegar a la estación más cargada, cancelando su espera allá (Cancelacion)
+ * para que pida bahía en la libre. Los drones no dejan la cola por su cuenta,
+ * así nadie pierde su lugar: sólo se mueve el último, que de todas formas
+ * esperaría más que todos. La bahía queda apartada para el robado hasta que
+ * despierta, así que con pocos núcleos cada robo cuesta un cambio de
+ * contexto.
+ *
+ * solicitarRecarga devuelve la estación asignada y liberarBahia la recibe.
+ */
+public class ClusterEstaciones {
+    public static final String MENOS_COLA = "menosCola";
+    public static final String DOS_OPCIONES = "dosOpciones";
+    public static final String AFINIDAD = "afinidad";
+
+    static final boolean ROBO = Boolean.parseBoolean(System.getProperty("estacion.robo", "true"));
+
+    // Cada contador de carga en su propia línea de caché (32 ints = 128 bytes)
+    private static final int PASO = 32;
+
+    private final GestorEstacion[] estaciones;
+    private final int bahias;
+    private final String ruteo;
+    private final AtomicIntegerArray carga;
+    // Drones esperando en cada estación, en orden de llegada
+    private final ConcurrentLinkedDeque<Espera>[] esperando;
+    private final LongAdder desvios = new LongAdder();
+    private final LongAdder robos = new LongAdder();
+
+    // Un dron esperando; si otra estación lo roba, destino dice cuál
+    private static final class Espera {
+        final Cancelacion cancelacion = new Cancelacion();
+        volatile int destino;
+    }
+
+    @SuppressWarnings("unchecked")
+    public ClusterEstaciones(int numEstaciones, int bahiasPorEstacion, String tipoAlgoritmo, String ruteo,
+                             ObservadorEstacion observador, boolean estadisticas) {
+        if (!MENOS_COLA.equals(ruteo) && !DOS_OPCIONES.equals(ruteo) && !AFINIDAD.equals(ruteo)) {
+            throw new IllegalArgumentException("Ruteo desconocido: " + ruteo
+                    + " (" + MENOS_COLA + ", " + DOS_OPCIONES + " o " + AFINIDAD + ")");
+        }
+        this.estaciones = new GestorEstacion[numEstaciones];
+        for (int i = 0; i < numEstaciones; i++) {
+            estaciones[i] = new GestorEstacion(bahiasPorEstacion, tipoAlgoritmo, observador, estadisticas);
+        }
+        this.bahias = bahiasPorEstacion;
+        this.ruteo = ruteo;
+        this.carga = new AtomicIntegerArray(numEstaciones * PASO);
+        this.esperando = new ConcurrentLinkedDeque[numEstaciones];
+        for (int i = 0; i < numEstaciones; i++) {
+            esperando[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    public int solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
+        if (estaciones.length == 1) {
+            // Sin nada que rutear: igual que un GestorEstacion solo
+            estaciones[0].solicitarRecarga(idDron, critico);
+            return 0;
+        }
+        int e = elegir(idDron);
+        carga.incrementAndGet(e * PASO);
+        try {
+            if (ROBO) {
+                long llegada = System.nanoTime();
+                while (true) {
+                    Espera espera = new Espera();
+                    esperando[e].addLast(espera);
+                    boolean obtenida;
+                    try {
+                        obtenida = estaciones[e].intentarRecarga(idDron, critico, espera.cancelacion, llegada);
+                    } finally {
+                        esperando[e].removeFirstOccurrence(espera);
+                    }
+                    if (obtenida) break;
+                    // Lo robó espera.destino, que ya lo cuenta en su carga
+                    carga.decrementAndGet(e * PASO);
+                    e = espera.destino;
+                }
+            } else {
+                estaciones[e].solicitarRecarga(idDron, critico);
+            }
+        } catch (InterruptedException ex) {
+            carga.decrementAndGet(e * PASO);
+            throw ex;
+        }
+        return e;
+    }
+
+    public void liberarBahia(int estacion, int idDron) {
+        estaciones[estacion].liberarBahia(idDron);
+        if (estaciones.length > 1) {
+            carga.decrementAndGet(estacion * PASO);
+            if (ROBO) robarPara(estacion);
+        }
+    }
+
+    // Si libre tiene bahías de sobra, le pasa el último en llegar a la más cargada que tenga cola
+    private void robarPara(int libre) {
+        if (carga.get(libre * PASO) >= bahias) return;
+        int mas = masCargada(libre);
+        if (mas < 0) return;
+        Espera espera;
+        while ((espera = esperando[mas].pollLast()) != null) {
+            espera.destino = libre;
+            carga.incrementAndGet(libre * PASO);
+            if (espera.cancelacion.cancelar()) {
+                robos.increment();
+                return;
+            }
+            // Ya estaba tomando su bahía allá: probar con el anterior
+            carga.decrementAndGet(libre * PASO);
+        }
+    }
+
+    // La estación con más carga y drones esperando, sin contar excepto; -1 si ninguna tiene cola
+    private int masCargada(int excepto) {
+        int mejor = -1;
+        int mayor = bahias;
+        for (int e = 0; e < estaciones.length; e++) {
+            int c = carga.get(e * PASO);
+            if (e != excepto && c > mayor) {
+                mayor = c;
+                mejor = e;
+            }
+        }
+        return mejor;
+    }
+
+    private int elegir(int idDron) {
+        int n = estaciones.length;
+        int e;
+        switch (ruteo) {
+            case MENOS_COLA:
+                // Ya es la menos cargada: no hay a dónde desviar
+                return menosCargada(ThreadLocalRandom.current().nextInt(n));
+            case DOS_OPCIONES: {
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                int a = rand.nextInt(n);
+                int b = rand.nextInt(n - 1);
+                if (b >= a) b++;
+                e = carga.get(b * PASO) < carga.get(a * PASO) ? b : a;
+                break;
+            }
+            default:
+                e = Math.floorMod(idDron, n);
+                break;
+        }
+        int otra = conBahiaLibre(e);
+        if (otra != e) desvios.increment();
+        return otra;
+    }
+
+    // e si todavía tiene bahía libre o ninguna otra la tiene; si no, la primera que sí
+    private int conBahiaLibre(int e) {
+        if (carga.get(e * PASO) < bahias) return e;
+        int n = estaciones.length;
+        for (int i = 1; i < n; i++) {
+            int otra = (e + i) % n;
+            if (carga.get(otra * PASO) < bahias) return otra;
+        }
+        return e;
+    }
+
+    // Empieza en desde para que los empates no caigan siempre en la estación 0
+    private int menosCargada(int desde) {
+        int n = estaciones.length;
+        int mejor = desde;
+        int menor = carga.get(desde * PASO);
+        for (int i = 1; i < n && menor > 0; i++) {
+            int e = (desde + i) % n;
+            int c = carga.get(e * PASO);
+            if (c < menor) {
+                menor = c;
+                mejor = e;
+            }
+        }
+        return mejor;
+    }
+
+    public void setEnergiaSolar(boolean activo) {
+        for (GestorEstacion estacion : estaciones) {
+            estacion.setEnergiaSolar(activo);
+        }
+    }
+
+    public int getNumEstaciones() { return estaciones.length; }
+
+    public GestorEstacion getEstacion(int i) { return estaciones[i]; }
+
+    /** Solicitudes que al llegar fueron a otra estación porque la elegida estaba llena. */
+    public long getDesvios() { return desvios.sum(); }
+
+    /** Veces que un dron encolado se pasó a otra estación con bahía libre. */
+    public long getRobos() { return robos.sum(); }
+
+    public int getRecargas() {
+        int total = 0;
+        for (GestorEstacion estacion : estaciones) total += estacion.getRecargas();
+        return total;
+    }
+
+    public long getDespertares() {
+        long total = 0;
+        for (GestorEstacion estacion : estaciones) total += estacion.getDespertares();
+        return total;
+    }
+
+    /**
+     * Estadísticas de GestorEstacion sumadas sobre todas las estaciones.
+     */
+    public String resumenEstadisticas() {
+        HistogramaLatencia[] esperas = new HistogramaLatencia[2];
+        HistogramaLatencia[] servicios = new HistogramaLatencia[2];
+        HistogramaLatencia[] colas = new HistogramaLatencia[2];
+        for (int clase = 0; clase < 2; clase++) {
+            boolean critico = clase == 1;
+            esperas[clase] = new HistogramaLatencia();
+            servicios[clase] = new HistogramaLatencia();
+            colas[clase] = new HistogramaLatencia();
+            for (GestorEstacion estacion : estaciones) {
+                esperas[clase].sumar(estacion.getEspera(critico));
+                servicios[clase].sumar(estacion.getServicio(critico));
+                colas[clase].sumar(estacion.getColaAlLlegar(critico));
+            }
+        }
+        return GestorEstacion.resumen(esperas, servicios, colas)
+                + "\ndesvios=" + getDesvios() + " robos=" + getRobos();
+    }
+}
@@ -0,0 +1,134 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Detecta cuándo un hilo virtual queda fijo (pinned) a su hilo portador.
+ *
+ * En Java 21 un hilo virtual que espera dentro de un bloque synchronized
+ * (wait() o la entrada a un monitor ocupado) no libera a su portador. Las
+ * estrategias de EstacionCarga (EstacionMonitor, EstacionSemaforo, ...) usan
+ * java.util.concurrent y no deberían aparecer; si aparecen es una regresión.
+ * Lo synchronized que queda son los setters de EstacionSolarPanelParalelo.
+ * Se escucha con JFR en proceso: jdk.VirtualThreadPinned, y
+ * jdk.JavaMonitorWait / jdk.JavaMonitorEnter filtrados a hilos virtuales. Los
+ * eventos se agrupan por el primer marco de la pila que pertenece al proyecto.
+ *
+ * El umbral se ajusta con -Dsimulacion.umbralPinningMs (10 ms por defecto).
+ */
+public final class DetectorPinning {
+
+    private static final String PREFIJO_JDK = "jdk.";
+    private static final String[] EVENTOS = {
+        "jdk.VirtualThreadPinned", "jdk.JavaMonitorWait", "jdk.JavaMonitorEnter"
+    };
+
+    private static final Map<String, Registro> porLugar = new ConcurrentHashMap<>();
+    private static final LongAdder totalEventos = new LongAdder();
+    private static RecordingStream flujo;
+
+    private static final class Registro {
+        final LongAdder eventos = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    private DetectorPinning() {
+    }
+
+    public static synchronized void iniciar() {
+        if (flujo != null) return;
+        long umbralMs = Long.getLong("simulacion.umbralPinningMs", 10);
+        try {
+            RecordingStream rs = new RecordingStream();
+            for (String evento : EVENTOS) {
+                rs.enable(evento).withThreshold(Duration.ofMillis(umbralMs)).withStackTrace();
+            }
+            rs.onEvent(DetectorPinning::procesar);
+            rs.startAsync();
+            flujo = rs;
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo iniciar la detección de pinning: " + e.getMessage());
+        }
+    }
+
+    public static synchronized void detener() {
+        if (flujo != null) {
+            flujo.close();
+            flujo = null;
+        }
+    }
+
+    public static long getEventos() {
+        return totalEventos.sum();
+    }
+
+    public static void reiniciar() {
+        porLugar.clear();
+        totalEventos.reset();
+    }
+
+    /**
+     * Resumen por lugar del código: eventos y tiempo total fijo al portador.
+     */
+    public static String reporte() {
+        if (porLugar.isEmpty()) {
+            return "Pinning: sin eventos";
+        }
+        List<Map.Entry<String, Registro>> entradas = new ArrayList<>(porLugar.entrySet());
+        entradas.sort((a, b) -> Long.compare(b.getValue().eventos.sum(), a.getValue().eventos.sum()));
+        StringBuilder sb = new StringBuilder("Pinning (" + getEventos() + " eventos):\n");
+        for (Map.Entry<String, Registro> e : entradas) {
+            sb.append(String.format("  %-60s %6d eventos %10.1f ms%n", e.getKey(),
+                    e.getValue().eventos.sum(), e.getValue().nanos.sum() / 1_000_000.0));
+        }
+        return sb.toString();
+    }
+
+    private static void procesar(RecordedEvent evento) {
+        // El flujo también entrega los eventos propios que se graben (EventosJFR)
+        String tipo = evento.getEventType().getName();
+        if (!esEscuchado(tipo)) return;
+        RecordedThread hilo = evento.getThread();
+        if (!"jdk.VirtualThreadPinned".equals(tipo) && (hilo == null || !hilo.isVirtual())) {
+            return;
+        }
+        String lugar = lugar(evento.getStackTrace()) + " [" + tipo.substring(PREFIJO_JDK.length()) + "]";
+        Registro registro = porLugar.computeIfAbsent(lugar, k -> {
+            System.err.println("[Pinning] " + k + " (" + evento.getDuration().toMillis() + " ms, hilo "
+                    + (hilo != null ? hilo.getJavaName() : "?") + ")");
+            return new Registro();
+        });
+        registro.eventos.increment();
+        registro.nanos.add(evento.getDuration().toNanos());
+        totalEventos.increment();
+    }
+
+    private static boolean esEscuchado(String tipo) {
+        for (String evento : EVENTOS) {
+            if (evento.equals(tipo)) return true;
+        }
+        return false;
+    }
+
+    private static String lugar(RecordedStackTrace pila) {
+        if (pila == null) return "(sin pila)";
+        for (RecordedFrame marco : pila.getFrames()) {
+            if (!marco.isJavaFrame()) continue;
+            String clase = marco.getMethod().getType().getName();
+            if (clase.startsWith("java.") || clase.startsWith("javax.") || clase.startsWith("jdk.")
+                    || clase.startsWith("sun.")) {
+                continue;
+            }
+            return clase + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+        }
+        return "(JDK)";
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estación con barrera: los drones se juntan en grupos de TAMANO_GRUPO (o
+ * menos si hay menos bahías) y el grupo entra completo cuando hay bahías para
+ * todos. Se implementa con un candado y una condición en vez de CyclicBarrier:
+ * si el grupo no se completa en ESPERA_GRUPO_MS (-Destacion.esperaGrupoMs)
+ * entra incompleto, así un solo dron nunca se queda bloqueado para siempre.
+ * Un dron que llega a la estación vacía (nadie esperando y ninguna bahía
+ * ocupada) entra de inmediato: no hay quién complete su grupo, y un
+ * llamador de un solo hilo no paga ESPERA_GRUPO_MS en cada solicitud.
+ * Cada grupo es una generación distinta. Aquí no hay prioridad para críticos.
+ * Un dron cancelado (Cancelacion) sale de su grupo, o devuelve su bahía si
+ * el grupo ya había entrado.
+ * Los avisos al observador van después de soltar el candado.
+ */
+class EstacionBarrera implements EstacionCarga {
+    static final int TAMANO_GRUPO = 3;
+    static final long ESPERA_GRUPO_MS = Long.getLong("estacion.esperaGrupoMs", 2000);
+
+    private final int tamanoGrupo;
+    private final int bahiasTotales;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition cambioEstado = lock.newCondition();
+    private final ObservadorEstacion observador;
+    private final HistogramaLatencia latencia;
+
+    // Protegidos por lock
+    private int bahias;
+    private boolean haySol = true;
+    private int generacion = 0;
+    private int enGrupo = 0;
+    private long limiteGrupo;
+    private long ultimoCambio; // última liberación, regreso de la energía o grupo listo
+
+    EstacionBarrera(int bahias, ObservadorEstacion observador, HistogramaLatencia latencia) {
+        this.bahias = bahias;
+        this.bahiasTotales = bahias;
+        this.tamanoGrupo = Math.max(1, Math.min(TAMANO_GRUPO, bahias));
+        this.observador = observador;
+        this.latencia = latencia;
+    }
+
+    @Override
+    public boolean intentarRecarga(int idDron, boolean critico, long plazoNanos, Cancelacion cancelacion)
+            throws InterruptedException {
+        long inicio = System.nanoTime();
+        boolean sinPlazo = plazoNanos == SIN_PLAZO;
+        long limitePlazo = sinPlazo ? 0 : inicio + plazoNanos;
+        observador.solicitud(idDron, critico);
+        long espera;
+        int grupo = 0; // tamaño del grupo si este dron abrió la barrera
+        int libres;
+        if (cancelacion != null) cancelacion.alCancelar(this::despertarTodos);
+        lock.lock();
+        try {
+            // Si el grupo actual ya está completo, esperar al siguiente
+            while (enGrupo >= tamanoGrupo) {
+                if (cancelacion != null && cancelacion.cancelada()) return false;
+                if (sinPlazo) {
+                    cambioEstado.await();
+                } else {
+                    long restante = limitePlazo - System.nanoTime();
+                    if (restante <= 0) return false;
+                    cambioEstado.awaitNanos(restante);
+                }
+            }
+            if (enGrupo == 0) {
+                limiteGrupo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_GRUPO_MS);
+            }
+            int miGeneracion = generacion;
+            enGrupo++;
+            boolean estacionVacia = enGrupo == 1 && bahias == bahiasTotales;
+            if (enGrupo == tamanoGrupo) ultimoCambio = System.nanoTime();
+
+            try {
+                while (generacion == miGeneracion) {
+                    if (cancelacion != null && cancelacion.cancelada()) {
+                        enGrupo--;
+                        cambioEstado.signalAll();
+                        return false;
+                    }
+                    long ahora = System.nanoTime();
+                    long restante = limiteGrupo - ahora;
+                    boolean puedeEntrar = enGrupo >= tamanoGrupo || restante <= 0 || estacionVacia;
+                    if (haySol && puedeEntrar && bahias >= enGrupo) {
+                        // Abrir la barrera para todo el grupo
+                        if (enGrupo < tamanoGrupo && restante <= 0) {
+                            ultimoCambio = Math.max(ultimoCambio, limiteGrupo);
+                        }
+                        bahias -= enGrupo;
+                        grupo = enGrupo;
+                        enGrupo = 0;
+                        generacion++;
+                        cambioEstado.signalAll();
+                        break;
+                    }
+                    if (!sinPlazo) {
+                        long restantePlazo = limitePlazo - ahora;
+                        if (restantePlazo <= 0) {
+                            // Venció el plazo antes de que el grupo entrara: salir del grupo
+                            enGrupo--;
+                            cambioEstado.signalAll();
+                            return false;
+                        }
+                        restante = restante > 0 ? Math.min(restante, restantePlazo) : restantePlazo;
+                    }
+                    if (restante > 0) {
+                        cambioEstado.awaitNanos(restante);
+                    } else {
+                        cambioEstado.await();
+                    }
+                }
+            } catch (InterruptedException e) {
+                if (generacion == miGeneracion) {
+                    enGrupo--;
+                } else {
+                    // El grupo ya había entrado: devolver la bahía
+                    bahias++;
+                }
+                cambioEstado.signalAll();
+                throw e;
+            }
+            if (cancelacion != null && !cancelacion.conceder()) {
+                // Lo cancelaron cuando su grupo ya entraba: devolver la bahía
+                bahias++;
+                cambioEstado.signalAll();
+                return false;
+            }
+
+            libres = bahias;
+            espera = System.nanoTime() - Math.max(inicio, ultimoCambio);
+        } finally {
+            lock.unlock();
+        }
+        if (latencia != null) latencia.registrar(espera);
+        if (grupo > 0) observador.grupoFormado(grupo);
+        observador.bahiasDisponibles(libres);
+        observador.asignada(idDron);
+        return true;
+    }
+
+    @Override
+    public void liberarBahia(int idDron) {
+        int libres;
+        lock.lock();
+        try {
+            libres = ++bahias;
+            ultimoCambio = System.nanoTime();
+            cambioEstado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        observador.bahiasDisponibles(libres);
+        observador.liberada(idDron);
+    }
+
+    private void despertarTodos() {
+        lock.lock();
+        try {
+            cambioEstado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void actualizarEnergia(int energia) {
+        lock.lock();
+        try {
+            boolean estabaActivo = haySol;
+            haySol = energia > 0;
+            if (haySol && !estabaActivo) ultimoCambio = System.nanoTime();
+            if (haySol) cambioEstado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        observador.energia(energia, energia > 0);
+    }
+}
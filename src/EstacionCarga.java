@@ -0,0 +1,58 @@
+/**
+ * Estrategia de sincronización de la estación de carga de drones.
+ *
+ * Todas las estrategias respetan la misma política: hay un número fijo de
+ * bahías, sin energía solar no se asigna ninguna, los críticos pasan antes
+ * que los normales y dentro de cada grupo se atiende en orden de llegada
+ * (salvo Barreras, que deja entrar a los drones por grupos).
+ *
+ * Las implementaciones se crean por nombre con EstacionesCarga; la estrategia
+ * se escoge una sola vez y después cada llamada va directo a su clase.
+ */
+public interface EstacionCarga {
+
+    /**
+     * Plazo de intentarRecarga que espera sin límite.
+     */
+    long SIN_PLAZO = Long.MAX_VALUE;
+
+    /**
+     * Bloquea hasta que el dron tiene una bahía. Si se interrumpe, el dron sale
+     * de la cola sin bahía y se lanza InterruptedException.
+     */
+    default void solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
+        intentarRecarga(idDron, critico, SIN_PLAZO);
+    }
+
+    /**
+     * Como solicitarRecarga, pero si en plazoNanos no obtuvo bahía el dron sale
+     * de la cola y devuelve false. Con plazo 0 sólo toma una bahía libre si
+     * nadie espera antes que él.
+     */
+    default boolean intentarRecarga(int idDron, boolean critico, long plazoNanos) throws InterruptedException {
+        return intentarRecarga(idDron, critico, plazoNanos, null);
+    }
+
+    /**
+     * Como intentarRecarga, pero además otro hilo puede sacar al dron de la
+     * cola con cancelacion.cancelar(); entonces devuelve false igual que al
+     * vencer el plazo. cancelacion puede ser null.
+     */
+    boolean intentarRecarga(int idDron, boolean critico, long plazoNanos, Cancelacion cancelacion)
+            throws InterruptedException;
+
+    void liberarBahia(int idDron);
+
+    /**
+     * Nueva energía solar; con 0 la estación deja de asignar bahías.
+     */
+    void actualizarEnergia(int energia);
+
+    /**
+     * Veces que un dron despertó sin poder pasar o pasando; 0 si la estrategia
+     * no las cuenta.
+     */
+    default long getDespertares() {
+        return 0;
+    }
+}
@@ -0,0 +1,298 @@
+import mpi.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Modo compartido de EstacionSolarMPJ (modo=compartido): todos los drones de
+ * todos los procesos compiten por las bahías de una sola estación lógica.
+ *
+ * Rank 0 es el maestro de siempre. Los ranks 1..estaciones son dueños de las
+ * bahías (repartidas entre ellos) y de sus colas de críticos y normales; el
+ * dron d pide siempre a la estación d % estaciones. El resto de los ranks son
+ * shards de drones: cada uno corre `drones` hilos (de FabricaHilos) que vuelan,
+ * piden bahía, cargan y la liberan durante `rondas` ciclos.
+ *
+ * En cada proceso un solo hilo habla con MPI. En un shard los drones dejan sus
+ * PEDIR/LIBERAR en un BufferEventos y esperan en un semáforo propio; el hilo
+ * despachador los junta en lotes por estación, recibe las concesiones y
+ * despierta al dron. La estación atiende lotes de todos los shards en orden de
+ * llegada y contesta con lotes de CONCEDER. Cada dron reporta al maestro su
+ * espera por la bahía (COMPLETADO con la espera en µs), así los resultados
+ * traen la latencia por shard.
+ */
+public class EstacionCompartidaMPJ {
+
+    // Sin trabajo pendiente el despachador del shard duerme esto antes de volver a revisar MPI
+    private static final long ESPERA_SIN_TRABAJO_NS = 20_000;
+
+    private final int rank;
+    private final int numEstaciones;
+    private final int primerShard;
+    private final int numShards;
+    private final int bahias;
+    private final int dronesPorShard;
+    private final int ciclos;
+    private final int vueloMs;
+    private final int cargaMs;
+    private final double criticos;
+
+    EstacionCompartidaMPJ(int rank, int size, int numEstaciones, int bahias, int dronesPorShard,
+                          int ciclos, int vueloMs, int cargaMs, double criticos) {
+        if (numEstaciones < 1 || size < numEstaciones + 2) {
+            throw new IllegalArgumentException("El modo compartido necesita al menos "
+                    + (numEstaciones + 2) + " procesos: maestro, " + numEstaciones + " estación(es) y un shard");
+        }
+        this.rank = rank;
+        this.numEstaciones = numEstaciones;
+        this.primerShard = numEstaciones + 1;
+        this.numShards = size - primerShard;
+        this.bahias = bahias;
+        this.dronesPorShard = dronesPorShard;
+        this.ciclos = ciclos;
+        this.vueloMs = vueloMs;
+        this.cargaMs = cargaMs;
+        this.criticos = criticos;
+    }
+
+    static String rolPorRank(int rank, int numEstaciones) {
+        if (rank == 0) return "Maestro";
+        return rank <= numEstaciones ? "Estacion" : "Drones";
+    }
+
+    boolean esEstacion() {
+        return rank >= 1 && rank < primerShard;
+    }
+
+    void correr() throws MPIException, InterruptedException {
+        if (esEstacion()) {
+            correrEstacion();
+        } else {
+            correrShard();
+        }
+    }
+
+    // ---------------------------------------------------------------- estación
+
+    private void correrEstacion() throws MPIException {
+        int indice = rank - 1;
+        int libres = bahias / numEstaciones + (indice < bahias % numEstaciones ? 1 : 0);
+        System.out.println("Estación " + rank + ": " + libres + " bahía(s), " + numShards + " shard(s)");
+
+        ColaDrones colaCriticos = new ColaDrones();
+        ColaDrones colaNormales = new ColaDrones();
+        ProtocoloMPJ.Lote[] aShards = new ProtocoloMPJ.Lote[numShards];
+        for (int s = 0; s < numShards; s++) {
+            aShards[s] = new ProtocoloMPJ.Lote(primerShard + s, ProtocoloMPJ.TAG_CONCEDER);
+        }
+        int[] mensaje = new int[ProtocoloMPJ.tamMensaje(ProtocoloMPJ.EVENTOS_POR_LOTE)];
+        int shardsActivos = numShards;
+        long concesiones = 0;
+        int colaMaxima = 0;
+
+        while (shardsActivos > 0) {
+            Status st = MPI.COMM_WORLD.Recv(mensaje, 0, mensaje.length, MPI.INT, MPI.ANY_SOURCE, ProtocoloMPJ.TAG_ESTACION);
+            int shard = st.source - primerShard;
+            int p = 1;
+            for (int r = 0; r < mensaje[0]; r++, p += ProtocoloMPJ.TAM_REGISTRO) {
+                int tipo = mensaje[p];
+                int idDron = mensaje[p + 1];
+                if (tipo == ProtocoloMPJ.PEDIR) {
+                    if (libres > 0 && colaCriticos.estaVacia() && colaNormales.estaVacia()) {
+                        libres--;
+                        aShards[shard].agregar(ProtocoloMPJ.CONCEDER, idDron, 0);
+                        concesiones++;
+                    } else {
+                        (mensaje[p + 2] == 1 ? colaCriticos : colaNormales).agregar(shard, idDron);
+                        colaMaxima = Math.max(colaMaxima, colaCriticos.tamano() + colaNormales.tamano());
+                    }
+                } else if (tipo == ProtocoloMPJ.LIBERAR) {
+                    // La bahía pasa directo al siguiente en espera, críticos primero
+                    ColaDrones cola = !colaCriticos.estaVacia() ? colaCriticos : colaNormales;
+                    if (cola.estaVacia()) {
+                        libres++;
+                    } else {
+                        long siguiente = cola.quitar();
+                        aShards[ColaDrones.shard(siguiente)].agregar(ProtocoloMPJ.CONCEDER, ColaDrones.dron(siguiente), 0);
+                        concesiones++;
+                    }
+                } else if (tipo == ProtocoloMPJ.FIN) {
+                    aShards[shard].agregar(ProtocoloMPJ.FIN, rank, 0);
+                    shardsActivos--;
+                }
+            }
+            for (ProtocoloMPJ.Lote lote : aShards) {
+                lote.enviar();
+            }
+        }
+
+        System.out.println("Estación " + rank + ": " + concesiones + " concesiones, cola máxima " + colaMaxima);
+        ProtocoloMPJ.Lote aMaestro = new ProtocoloMPJ.Lote(0);
+        aMaestro.agregar(ProtocoloMPJ.FIN, rank, 0);
+        aMaestro.enviar();
+    }
+
+    // ------------------------------------------------------------------- shard
+
+    private void correrShard() throws MPIException, InterruptedException {
+        int shard = rank - primerShard;
+        int primerDron = shard * dronesPorShard;
+        System.out.println("Shard " + rank + ": drones " + primerDron + "-" + (primerDron + dronesPorShard - 1));
+
+        // Salida de los drones hacia el despachador: algoritmo = estación destino (o -1 = maestro)
+        BufferEventos salida = new BufferEventos(Math.max(1024, 4 * dronesPorShard));
+        Semaphore[] concedido = new Semaphore[dronesPorShard];
+        for (int i = 0; i < dronesPorShard; i++) {
+            concedido[i] = new Semaphore(0);
+        }
+        CountDownLatch terminados = new CountDownLatch(dronesPorShard);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < dronesPorShard; i++) {
+            final int local = i;
+            final int idDron = primerDron + i;
+            final int estacion = idDron % numEstaciones;
+            FabricaHilos.iniciar(() -> {
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                try {
+                    for (int c = 0; c < ciclos; c++) {
+                        if (vueloMs > 0) Thread.sleep(rand.nextInt(vueloMs + 1));
+                        int critico = rand.nextDouble() < criticos ? 1 : 0;
+                        long t0 = System.nanoTime();
+                        salida.publicarEsperando(estacion, ProtocoloMPJ.PEDIR, idDron, critico);
+                        concedido[local].acquire();
+                        int esperaUs = (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - t0) / 1_000);
+                        if (cargaMs > 0) Thread.sleep(cargaMs);
+                        salida.publicarEsperando(estacion, ProtocoloMPJ.LIBERAR, idDron, 0);
+                        salida.publicarEsperando(-1, ProtocoloMPJ.COMPLETADO, idDron, esperaUs);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    terminados.countDown();
+                }
+            }, "Dron-" + idDron);
+        }
+
+        despachar(salida, concedido, primerDron, terminados);
+
+        int duracionUs = (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - inicio) / 1_000);
+        ProtocoloMPJ.Lote aMaestro = new ProtocoloMPJ.Lote(0);
+        aMaestro.agregar(ProtocoloMPJ.RONDA, rank, duracionUs);
+        aMaestro.agregar(ProtocoloMPJ.FIN, rank, ciclos);
+        aMaestro.enviar();
+    }
+
+    // Único hilo del shard que usa MPI. Regresa cuando todos los drones
+    // terminaron y cada estación confirmó el FIN del shard.
+    private void despachar(BufferEventos salida, Semaphore[] concedido, int primerDron,
+                           CountDownLatch terminados) throws MPIException {
+        ProtocoloMPJ.Lote[] aEstaciones = new ProtocoloMPJ.Lote[numEstaciones];
+        for (int e = 0; e < numEstaciones; e++) {
+            aEstaciones[e] = new ProtocoloMPJ.Lote(1 + e, ProtocoloMPJ.TAG_ESTACION);
+        }
+        ProtocoloMPJ.Lote aMaestro = new ProtocoloMPJ.Lote(0);
+        MPIException[] fallo = new MPIException[1];
+        BufferEventos.Lector lector = (destino, tipo, idDron, marca, valor) -> {
+            try {
+                (destino < 0 ? aMaestro : aEstaciones[destino]).agregar(tipo, idDron, valor);
+            } catch (MPIException e) {
+                fallo[0] = e;
+            }
+        };
+
+        int[] recibido = new int[ProtocoloMPJ.tamMensaje(ProtocoloMPJ.EVENTOS_POR_LOTE)];
+        Request concesiones = MPI.COMM_WORLD.Irecv(recibido, 0, recibido.length, MPI.INT,
+                MPI.ANY_SOURCE, ProtocoloMPJ.TAG_CONCEDER);
+        boolean finEnviado = false;
+        int acusesPendientes = numEstaciones;
+
+        while (acusesPendientes > 0) {
+            boolean huboTrabajo = salida.drenar(lector) > 0;
+            if (fallo[0] != null) throw fallo[0];
+            for (ProtocoloMPJ.Lote lote : aEstaciones) {
+                lote.enviar();
+            }
+            aMaestro.enviarSiVencido();
+
+            Status st = concesiones.Test();
+            if (st != null) {
+                int p = 1;
+                for (int r = 0; r < recibido[0]; r++, p += ProtocoloMPJ.TAM_REGISTRO) {
+                    if (recibido[p] == ProtocoloMPJ.CONCEDER) {
+                        concedido[recibido[p + 1] - primerDron].release();
+                    } else if (recibido[p] == ProtocoloMPJ.FIN) {
+                        acusesPendientes--;
+                    }
+                }
+                if (acusesPendientes > 0) {
+                    concesiones = MPI.COMM_WORLD.Irecv(recibido, 0, recibido.length, MPI.INT,
+                            MPI.ANY_SOURCE, ProtocoloMPJ.TAG_CONCEDER);
+                }
+                huboTrabajo = true;
+            }
+
+            if (!finEnviado && terminados.getCount() == 0 && salida.estaVacio()) {
+                for (ProtocoloMPJ.Lote lote : aEstaciones) {
+                    lote.agregar(ProtocoloMPJ.FIN, rank, 0);
+                    lote.enviar();
+                }
+                finEnviado = true;
+                huboTrabajo = true;
+            }
+            if (!huboTrabajo) {
+                LockSupport.parkNanos(ESPERA_SIN_TRABAJO_NS);
+            }
+        }
+        aMaestro.enviar();
+    }
+
+    // Cola FIFO de (shard, dron) empacados en un long, sin objetos por elemento
+    private static class ColaDrones {
+        private long[] elementos = new long[64];
+        private int cabeza;
+        private int cantidad;
+
+        static long empacar(int shard, int dron) {
+            return ((long) shard << 32) | (dron & 0xFFFFFFFFL);
+        }
+
+        static int shard(long empacado) {
+            return (int) (empacado >>> 32);
+        }
+
+        static int dron(long empacado) {
+            return (int) empacado;
+        }
+
+        void agregar(int shard, int dron) {
+            if (cantidad == elementos.length) {
+                long[] nuevos = new long[cantidad * 2];
+                // Desenrollar el anillo al crecer
+                for (int k = 0; k < cantidad; k++) {
+                    nuevos[k] = elementos[(cabeza + k) % cantidad];
+                }
+                elementos = nuevos;
+                cabeza = 0;
+            }
+            elementos[(cabeza + cantidad) % elementos.length] = empacar(shard, dron);
+            cantidad++;
+        }
+
+        long quitar() {
+            long valor = elementos[cabeza];
+            cabeza = (cabeza + 1) % elementos.length;
+            cantidad--;
+            return valor;
+        }
+
+        boolean estaVacia() {
+            return cantidad == 0;
+        }
+
+        int tamano() {
+            return cantidad;
+        }
+    }
+}
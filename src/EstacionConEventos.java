@@ -0,0 +1,72 @@
+/**
+ * Envuelve cualquier EstacionCarga y emite los eventos JFR de bahía
+ * (EventosJFR.BayRequested, BayGranted y BayReleased) con el nombre del
+ * algoritmo. EstacionesCarga.crear envuelve todas las estaciones.
+ *
+ * Mientras EventosJFR.activos() sea false se delega directo, sin crear
+ * eventos: en el benchmark de semáforos crearlos costaba ~15% aunque no se
+ * grabara.
+ */
+final class EstacionConEventos implements EstacionCarga {
+    private final EstacionCarga estacion;
+    private final String algoritmo;
+
+    EstacionConEventos(EstacionCarga estacion, String algoritmo) {
+        this.estacion = estacion;
+        this.algoritmo = algoritmo;
+    }
+
+    @Override
+    public void solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
+        intentarRecarga(idDron, critico, SIN_PLAZO);
+    }
+
+    @Override
+    public boolean intentarRecarga(int idDron, boolean critico, long plazoNanos, Cancelacion cancelacion)
+            throws InterruptedException {
+        if (!EventosJFR.activos()) {
+            return estacion.intentarRecarga(idDron, critico, plazoNanos, cancelacion);
+        }
+        EventosJFR.BayRequested solicitud = new EventosJFR.BayRequested();
+        if (solicitud.shouldCommit()) {
+            solicitud.idDron = idDron;
+            solicitud.critico = critico;
+            solicitud.algoritmo = algoritmo;
+            solicitud.commit();
+        }
+        EventosJFR.BayGranted asignacion = new EventosJFR.BayGranted();
+        asignacion.begin();
+        boolean concedida = estacion.intentarRecarga(idDron, critico, plazoNanos, cancelacion);
+        asignacion.end();
+        if (asignacion.shouldCommit()) {
+            asignacion.idDron = idDron;
+            asignacion.critico = critico;
+            asignacion.algoritmo = algoritmo;
+            asignacion.concedida = concedida;
+            asignacion.commit();
+        }
+        return concedida;
+    }
+
+    @Override
+    public void liberarBahia(int idDron) {
+        estacion.liberarBahia(idDron);
+        if (!EventosJFR.activos()) return;
+        EventosJFR.BayReleased liberacion = new EventosJFR.BayReleased();
+        if (liberacion.shouldCommit()) {
+            liberacion.idDron = idDron;
+            liberacion.algoritmo = algoritmo;
+            liberacion.commit();
+        }
+    }
+
+    @Override
+    public void actualizarEnergia(int energia) {
+        estacion.actualizarEnergia(energia);
+    }
+
+    @Override
+    public long getDespertares() {
+        return estacion.getDespertares();
+    }
+}
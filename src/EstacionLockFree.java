@@ -0,0 +1,47 @@
+/**
+ * Estación sin candados: adapta AsignadorLockFree a EstacionCarga.
+ */
+class EstacionLockFree implements EstacionCarga {
+    private final AsignadorLockFree asignador;
+    private final ObservadorEstacion observador;
+    private final HistogramaLatencia latencia;
+    private volatile long ultimoCambio; // última liberación o regreso de la energía
+    private volatile boolean haySol = true;
+
+    EstacionLockFree(int bahias, ObservadorEstacion observador, HistogramaLatencia latencia) {
+        this.asignador = new AsignadorLockFree(bahias);
+        this.observador = observador;
+        this.latencia = latencia;
+    }
+
+    @Override
+    public boolean intentarRecarga(int idDron, boolean critico, long plazoNanos, Cancelacion cancelacion)
+            throws InterruptedException {
+        long inicio = latencia != null ? System.nanoTime() : 0;
+        observador.solicitud(idDron, critico);
+        if (!asignador.solicitar(idDron, critico, plazoNanos, cancelacion)) return false;
+        if (latencia != null) {
+            latencia.registrar(System.nanoTime() - Math.max(inicio, ultimoCambio));
+        }
+        observador.bahiasDisponibles(asignador.getBahiasDisponibles());
+        observador.asignada(idDron);
+        return true;
+    }
+
+    @Override
+    public void liberarBahia(int idDron) {
+        if (latencia != null) ultimoCambio = System.nanoTime();
+        asignador.liberar();
+        observador.bahiasDisponibles(asignador.getBahiasDisponibles());
+        observador.liberada(idDron);
+    }
+
+    @Override
+    public void actualizarEnergia(int energia) {
+        boolean activo = energia > 0;
+        if (activo && !haySol && latencia != null) ultimoCambio = System.nanoTime();
+        haySol = activo;
+        asignador.setEnergiaSolar(activo);
+        observador.energia(energia, activo);
+    }
+}
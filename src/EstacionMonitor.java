@@ -0,0 +1,177 @@
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estación con candado y variables de condición (monitor).
+ *
+ * Los drones esperan en dos colas FIFO, críticos y normales. Con despertar
+ * dirigido cada dron espera en su propia condición y sólo se despierta a la
+ * cabeza que puede pasar; sin él todos esperan en una condición y cada cambio
+ * hace signalAll para que reevalúen (así eran Variable de Condición y Mutex).
+ * Con candado justo el candado se entrega en orden de llegada. Una
+ * Cancelacion despierta al dron en su condición (o a todos sin despertar
+ * dirigido) y él sale de la cola como si venciera su plazo.
+ *
+ * Dentro del candado sólo se toca el estado de la estación; los avisos al
+ * observador y el registro de la latencia van después de soltarlo.
+ */
+class EstacionMonitor implements EstacionCarga {
+    private final ReentrantLock lock;
+    private final Condition esperarBahia;
+    private final Queue<Esperador> colaCriticos = new ArrayDeque<>();
+    private final Queue<Esperador> colaNormales = new ArrayDeque<>();
+    private final boolean despertarDirigido;
+    private final ObservadorEstacion observador;
+    private final HistogramaLatencia latencia;
+
+    // Protegidos por lock
+    private int bahias;
+    private boolean haySol = true;
+    private long despertares;
+    private long ultimoCambio; // última liberación o regreso de la energía
+
+    // Dron encolado; en modo dirigido cada uno espera en su propia condición
+    private static final class Esperador {
+        final int id;
+        final Condition turno;
+
+        Esperador(int id, Condition turno) {
+            this.id = id;
+            this.turno = turno;
+        }
+    }
+
+    EstacionMonitor(int bahias, boolean justo, boolean despertarDirigido,
+                    ObservadorEstacion observador, HistogramaLatencia latencia) {
+        this.bahias = bahias;
+        this.lock = new ReentrantLock(justo);
+        this.esperarBahia = lock.newCondition();
+        this.despertarDirigido = despertarDirigido;
+        this.observador = observador;
+        this.latencia = latencia;
+    }
+
+    @Override
+    public boolean intentarRecarga(int idDron, boolean critico, long plazoNanos, Cancelacion cancelacion)
+            throws InterruptedException {
+        long inicio = latencia != null ? System.nanoTime() : 0;
+        observador.solicitud(idDron, critico);
+        long espera = 0;
+        int libres;
+        // newCondition no necesita el candado: se crea antes de tomarlo
+        Esperador yo = new Esperador(idDron, despertarDirigido ? lock.newCondition() : esperarBahia);
+        if (cancelacion != null) cancelacion.alCancelar(() -> despertar(yo));
+        lock.lock();
+        try {
+            Queue<Esperador> cola = critico ? colaCriticos : colaNormales;
+            cola.add(yo);
+
+            long restante = plazoNanos;
+            try {
+                while (!haySol || bahias == 0 ||
+                       (critico && colaCriticos.peek() != yo) ||
+                       (!critico && (!colaCriticos.isEmpty() || colaNormales.peek() != yo)))
+                {
+                    if (restante <= 0 || (cancelacion != null && cancelacion.cancelada())) {
+                        // Venció el plazo o lo cancelaron: igual que al interrumpir, pero sin excepción
+                        cola.remove(yo);
+                        despertarCabeza();
+                        return false;
+                    }
+                    if (plazoNanos == SIN_PLAZO) {
+                        yo.turno.await();
+                    } else {
+                        restante = yo.turno.awaitNanos(restante);
+                    }
+                    despertares++;
+                }
+            } catch (InterruptedException e) {
+                // Salir de la cola para no bloquear a los que vienen detrás
+                cola.remove(yo);
+                despertarCabeza();
+                throw e;
+            }
+            if (cancelacion != null && !cancelacion.conceder()) {
+                cola.remove(yo);
+                despertarCabeza();
+                return false;
+            }
+
+            bahias--;
+            cola.poll();
+            libres = bahias;
+            if (latencia != null) espera = System.nanoTime() - Math.max(inicio, ultimoCambio);
+            // Si aún quedan bahías, la nueva cabeza puede pasar sin esperar otra liberación
+            despertarCabeza();
+        } finally {
+            lock.unlock();
+        }
+        if (latencia != null) latencia.registrar(espera);
+        observador.bahiasDisponibles(libres);
+        observador.asignada(idDron);
+        return true;
+    }
+
+    @Override
+    public void liberarBahia(int idDron) {
+        int libres;
+        lock.lock();
+        try {
+            libres = ++bahias;
+            if (latencia != null) ultimoCambio = System.nanoTime();
+            despertarCabeza();
+        } finally {
+            lock.unlock();
+        }
+        observador.bahiasDisponibles(libres);
+        observador.liberada(idDron);
+    }
+
+    @Override
+    public void actualizarEnergia(int energia) {
+        lock.lock();
+        try {
+            boolean estabaActivo = haySol;
+            haySol = energia > 0;
+            if (haySol && !estabaActivo && latencia != null) ultimoCambio = System.nanoTime();
+            despertarCabeza();
+        } finally {
+            lock.unlock();
+        }
+        observador.energia(energia, energia > 0);
+    }
+
+    @Override
+    public long getDespertares() {
+        lock.lock();
+        try {
+            return despertares;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Para Cancelacion: sin despertar dirigido la condición es la de todos
+    private void despertar(Esperador esperador) {
+        lock.lock();
+        try {
+            esperador.turno.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Debe llamarse con lock tomado. Críticos antes que normales, FIFO dentro de cada cola.
+    private void despertarCabeza() {
+        if (!haySol || bahias == 0) return;
+        if (!despertarDirigido) {
+            esperarBahia.signalAll(); // Avisar a todos para que reevalúen condiciones
+            return;
+        }
+        Esperador cabeza = colaCriticos.peek();
+        if (cabeza == null) cabeza = colaNormales.peek();
+        if (cabeza != null) cabeza.turno.signal();
+    }
+}
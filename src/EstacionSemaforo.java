@@ -0,0 +1,175 @@
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estación con semáforos y paso de testigo con prioridad.
+ *
+ * semBahias guarda las bahías libres. Si nadie espera, un dron toma la
+ * bahía con tryAcquire sin pasar por semMutex (camino rápido) y después
+ * vuelve a mirar los contadores: si alguien se anotó mientras tanto, la
+ * devuelve con pasarTestigo y se forma detrás, así el camino rápido nunca
+ * se adelanta a un dron que ya esperaba. Si hay que esperar, el dron se
+ * forma en la cola FIFO de críticos o de normales y se duerme en su propio
+ * semáforo (Turno). Quien libera una bahía, o el regreso de la energía, la
+ * reserva directamente para la cabeza (testigo), primero los críticos; el
+ * despertado ya trae su bahía y no compite. No hay sondeo. Una Cancelacion
+ * despierta al dron en su Turno sin bahía, y él sale de la cola. Los avisos
+ * al observador van fuera de semMutex.
+ */
+class EstacionSemaforo implements EstacionCarga {
+    private final Semaphore semBahias;
+    private final Semaphore semMutex = new Semaphore(1);
+    // Drones dormidos sin bahía reservada todavía (protegidas por semMutex)
+    private final Queue<Turno> colaCriticos = new ArrayDeque<>();
+    private final Queue<Turno> colaNormales = new ArrayDeque<>();
+    // Tamaño de cada cola, para el camino rápido (se escriben con semMutex tomado)
+    private volatile int criticosEsperando = 0;
+    private volatile int normalesEsperando = 0;
+    private volatile boolean haySol = true;
+    private final ObservadorEstacion observador;
+    private final HistogramaLatencia latencia;
+    private volatile long ultimoCambio; // última liberación o regreso de la energía
+
+    // Dron formado; pasarTestigo le reserva la bahía y lo despierta
+    private static final class Turno {
+        final Semaphore despertar = new Semaphore(0);
+        boolean conBahia; // protegido por semMutex
+    }
+
+    EstacionSemaforo(int bahias, ObservadorEstacion observador, HistogramaLatencia latencia) {
+        this.semBahias = new Semaphore(bahias);
+        this.observador = observador;
+        this.latencia = latencia;
+    }
+
+    @Override
+    public boolean intentarRecarga(int idDron, boolean critico, long plazoNanos, Cancelacion cancelacion)
+            throws InterruptedException {
+        long inicio = latencia != null ? System.nanoTime() : 0;
+        observador.solicitud(idDron, critico);
+        if (haySol && criticosEsperando == 0 && normalesEsperando == 0 && semBahias.tryAcquire()) {
+            if (criticosEsperando == 0 && normalesEsperando == 0) {
+                if (cancelacion == null || cancelacion.conceder()) {
+                    asignada(idDron, inicio);
+                    return true;
+                }
+                devolverBahia();
+                return false;
+            }
+            // Alguien se anotó entre la lectura y el tryAcquire: la bahía es suya
+            devolverBahia();
+        }
+
+        Turno yo = new Turno();
+        if (cancelacion != null) cancelacion.alCancelar(yo.despertar::release);
+        semMutex.acquire();
+        if (critico) {
+            colaCriticos.add(yo);
+            criticosEsperando++;
+        } else {
+            colaNormales.add(yo);
+            normalesEsperando++;
+        }
+        pasarTestigo();
+        semMutex.release();
+
+        try {
+            // Si no lo cancelaron, al despertar la bahía ya está reservada para este dron
+            if (cancelacion != null && cancelacion.cancelada()) {
+                abandonar(yo, critico);
+                return false;
+            } else if (plazoNanos == SIN_PLAZO) {
+                yo.despertar.acquire();
+            } else if (!yo.despertar.tryAcquire(plazoNanos, TimeUnit.NANOSECONDS)) {
+                abandonar(yo, critico);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            abandonar(yo, critico);
+            throw e;
+        }
+        if (cancelacion != null && !cancelacion.conceder()) {
+            abandonar(yo, critico);
+            return false;
+        }
+        asignada(idDron, inicio);
+        return true;
+    }
+
+    // El dron deja de esperar: sale de su cola o, si ya tenía el testigo, devuelve la bahía
+    private void abandonar(Turno yo, boolean critico) {
+        semMutex.acquireUninterruptibly();
+        if (yo.conBahia) {
+            semBahias.release();
+        } else if (critico) {
+            colaCriticos.remove(yo);
+            criticosEsperando--;
+        } else {
+            colaNormales.remove(yo);
+            normalesEsperando--;
+        }
+        pasarTestigo();
+        semMutex.release();
+    }
+
+    private void devolverBahia() {
+        semMutex.acquireUninterruptibly();
+        semBahias.release();
+        pasarTestigo();
+        semMutex.release();
+    }
+
+    private void asignada(int idDron, long inicio) {
+        if (latencia != null) {
+            latencia.registrar(System.nanoTime() - Math.max(inicio, ultimoCambio));
+        }
+        observador.bahiasDisponibles(semBahias.availablePermits());
+        observador.asignada(idDron);
+    }
+
+    @Override
+    public void liberarBahia(int idDron) {
+        semBahias.release();
+        if (latencia != null) ultimoCambio = System.nanoTime();
+        if (criticosEsperando + normalesEsperando > 0) {
+            semMutex.acquireUninterruptibly();
+            pasarTestigo();
+            semMutex.release();
+        }
+        observador.bahiasDisponibles(semBahias.availablePermits());
+        observador.liberada(idDron);
+    }
+
+    @Override
+    public void actualizarEnergia(int energia) {
+        semMutex.acquireUninterruptibly();
+        boolean estabaActivo = haySol;
+        haySol = energia > 0;
+        if (haySol && !estabaActivo && latencia != null) ultimoCambio = System.nanoTime();
+        pasarTestigo();
+        semMutex.release();
+        observador.energia(energia, energia > 0);
+    }
+
+    // Debe llamarse con semMutex tomado. Reserva bahías libres para los que esperan.
+    private void pasarTestigo() {
+        while (haySol) {
+            Turno turno;
+            if (criticosEsperando > 0) {
+                if (!semBahias.tryAcquire()) return;
+                turno = colaCriticos.poll();
+                criticosEsperando--;
+            } else if (normalesEsperando > 0) {
+                if (!semBahias.tryAcquire()) return;
+                turno = colaNormales.poll();
+                normalesEsperando--;
+            } else {
+                return;
+            }
+            turno.conBahia = true;
+            turno.despertar.release();
+        }
+    }
+}
@@ -1,119 +1,343 @@
 import mpi.*;
 import javax.swing.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Random;
 import java.awt.*;
 
+/**
+ * Comparativa de algoritmos de sincronización con MPJ: cada rank trabajador
+ * corre un algoritmo y manda sus eventos al rank 0.
+ *
+ * Con interfaz, el rank 0 muestra la gráfica y el grafo. Sin interfaz (sin
+ * pantalla o con headless=true) el rank 0 sólo junta los tiempos de ronda y,
+ * cuando todos los trabajadores terminan sus rondas, escribe los resultados
+ * con ResultadosBenchmarkMPJ y termina. Por ejemplo, con el dispositivo
+ * multicore de MPJ Express:
+ *   mpjrun.sh -np 6 -dev multicore EstacionSolarMPJ headless=true rondas=50 salida=resultados
+ *
+ * Claves: headless=false, rondas (0 = sin fin; 20 sin interfaz), drones=20,
+ * bahias=3, pausa (ms entre rondas; 500 con interfaz, 0 sin ella),
+ * salida=resultados_mpj (prefijo de .csv y .json), cadencia (rondas entre
+ * resúmenes; 5 con interfaz, 0 sin ella) y eventos (mandar cada solicitud y
+ * recarga para el grafo; sí con interfaz, no sin ella).
+ *
+ * Los tiempos y contadores de los trabajadores llegan al maestro como un
+ * resumen calculado con colectivas entre los trabajadores (ResumenMPJ); el
+ * número de trabajadores no está limitado a los cinco algoritmos. Siempre hay
+ * un resumen final, y además uno cada `cadencia` rondas si cadencia > 0. Las
+ * colectivas de MPJ Express son bloqueantes (no hay Iallreduce), así que un
+ * resumen periódico hace que cada rank avance al paso del más lento y el
+ * tiempo de ronda por rank deja de ser comparable: por eso sin interfaz, donde
+ * se miden, está apagado. Con rondas=0 no hay final y se usa al menos 1.
+ *
+ * Qué corre cada rank lo decide AsignacionRanks: asignacion=Mutex:20:3,Barreras
+ * (algoritmo[:drones[:bahias]], repartidos en ronda entre los ranks) y
+ * semilla=n para repetir una corrida. Con más ranks que entradas cada entrada
+ * tiene réplicas; la gráfica muestra la media de cada entrada y los resultados
+ * agregan las réplicas con su intervalo de confianza.
+ *
+ * Con modo=compartido los ranks dejan de correr cada uno su propia estación y
+ * compiten por una sola (ver EstacionCompartidaMPJ). Ahí drones es por shard,
+ * rondas son los ciclos de cada dron, y además: estaciones=1, vuelo=10 (ms
+ * máx.), carga=2 (ms con la bahía) y criticos=0.3.
+ */
 public class EstacionSolarMPJ {
 
-    // Tags para mensajes
-    static final int TAG_DATA = 1;
-    static final int TAG_EVENT = 2; // eventos de dron: [idDron, accion]
+    // Los mensajes entre núcleos siguen el formato de ProtocoloMPJ
 
     // Referencias a GUI (Solo usadas por Rank 0)
     private GraficasPanel graficasPanel;
     private PanelGrafoDinamico panelGrafo;
 
+    // Registros recibidos por el maestro, en camino a la interfaz
+    private static final int CAPACIDAD_EVENTOS = 1 << 14;
+    private final BufferEventos eventos = new BufferEventos(CAPACIDAD_EVENTOS);
+
+    private final int rondas;
+    private final int numDrones;
+    private final int bahias;
+    private final int pausaMs;
+    private final String salida;
+    private final Map<String, String> opciones;
+    private final boolean compartido;
+    private final int numEstaciones;
+    private final int cadencia;
+    private final boolean eventosDetallados;
+    private final AsignacionRanks asignacion;
+    private Intracomm comunicadorTrabajadores; // sin el maestro; null en el maestro
+    private ResultadosBenchmarkMPJ resultados; // sólo el maestro sin interfaz
+
     public EstacionSolarMPJ(GraficasPanel graficas, PanelGrafoDinamico grafo) {
+        this(graficas, grafo, Collections.emptyMap());
+    }
+
+    public EstacionSolarMPJ(GraficasPanel graficas, PanelGrafoDinamico grafo, Map<String, String> opciones) {
         this.graficasPanel = graficas;
         this.panelGrafo = grafo;
+        boolean headless = esHeadless(opciones);
+        this.rondas = Integer.parseInt(opciones.getOrDefault("rondas", headless ? "20" : "0"));
+        this.numDrones = Integer.parseInt(opciones.getOrDefault("drones", "20"));
+        this.bahias = Integer.parseInt(opciones.getOrDefault("bahias", "3"));
+        this.pausaMs = Integer.parseInt(opciones.getOrDefault("pausa", headless ? "0" : "500"));
+        this.salida = opciones.getOrDefault("salida", "resultados_mpj");
+        this.opciones = opciones;
+        this.compartido = "compartido".equalsIgnoreCase(opciones.getOrDefault("modo", "algoritmos"));
+        this.numEstaciones = Integer.parseInt(opciones.getOrDefault("estaciones", "1"));
+        int cadenciaPedida = Integer.parseInt(opciones.getOrDefault("cadencia", headless ? "0" : "5"));
+        this.cadencia = rondas == 0 ? Math.max(1, cadenciaPedida) : Math.max(0, cadenciaPedida);
+        this.eventosDetallados = Boolean.parseBoolean(opciones.getOrDefault("eventos", headless ? "false" : "true"));
+        this.asignacion = new AsignacionRanks(opciones);
+    }
+
+    static boolean esHeadless(Map<String, String> opciones) {
+        return GraphicsEnvironment.isHeadless() || Boolean.parseBoolean(opciones.getOrDefault("headless", "false"));
     }
 
     public void iniciar(String[] args) {
         int me = MPI.COMM_WORLD.Rank();
         int size = MPI.COMM_WORLD.Size();
 
+        if (!compartido) {
+            // Colectiva en todos los ranks: el maestro queda fuera del comunicador
+            try {
+                comunicadorTrabajadores = MPI.COMM_WORLD.Split(me == 0 ? MPI.UNDEFINED : 1, me);
+            } catch (MPIException e) {
+                System.err.println("Rank " + me + ": no se pudo crear el comunicador de trabajadores: " + e.getMessage());
+                return;
+            }
+        }
+
         if (me == 0) {
             System.out.println("Maestro (Rank 0): Escuchando resultados...");
-            panelGrafo.inicializarGrafo("EstacionSolar");
+            if (panelGrafo != null) {
+                panelGrafo.inicializarGrafo("EstacionSolar");
+            } else {
+                resultados = new ResultadosBenchmarkMPJ(size, String.format(
+                        "procesos=%d rondas=%d drones=%d bahias=%d pausa=%d lote=%d",
+                        size, rondas, numDrones, bahias, pausaMs, ProtocoloMPJ.EVENTOS_POR_LOTE)
+                        + (compartido ? " modo=compartido estaciones=" + numEstaciones
+                                : " cadencia=" + cadencia + " asignacion=" + asignacion.describir()));
+                for (int r = 1; r < size; r++) {
+                    resultados.setAlgoritmo(r, compartido
+                            ? EstacionCompartidaMPJ.rolPorRank(r, numEstaciones)
+                            : asignacion.porRank(r).etiqueta);
+                }
+            }
             correrMaestro();
-        } else {
-            String algoritmo = "";
-            switch (me) {
-                case 1: algoritmo = "Mutex"; break;
-                case 2: algoritmo = "Semaforos"; break;
-                case 3: algoritmo = "Monitores"; break;
-                case 4: algoritmo = "LockCondicion"; break;
-                case 5: algoritmo = "Barreras"; break;
-                default: algoritmo = "General"; break;
+            if (resultados != null) {
+                System.out.print(resultados.csv());
+                System.out.print(resultados.csvAlgoritmos());
+                try {
+                    resultados.escribir(salida);
+                    System.out.println("Maestro (Rank 0): resultados en " + salida + ".csv, "
+                            + salida + "_algoritmos.csv y " + salida + ".json");
+                } catch (IOException e) {
+                    System.err.println("Maestro (Rank 0): no se pudieron escribir los resultados: " + e.getMessage());
+                }
             }
-            System.out.println("Nucleo " + me + ": Probando algoritmo " + algoritmo);
-            correrTrabajador(me, algoritmo);
+        } else if (compartido) {
+            try {
+                new EstacionCompartidaMPJ(me, size, numEstaciones, bahias, numDrones,
+                        rondas == 0 ? Integer.MAX_VALUE : rondas,
+                        Integer.parseInt(opciones.getOrDefault("vuelo", "10")),
+                        Integer.parseInt(opciones.getOrDefault("carga", "2")),
+                        Double.parseDouble(opciones.getOrDefault("criticos", "0.3"))).correr();
+            } catch (MPIException e) {
+                System.err.println("Rank " + me + ": error de MPI en el modo compartido: " + e.getMessage());
+                e.printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            AsignacionRanks.Entrada entrada = asignacion.porRank(me);
+            System.out.println("Nucleo " + me + ": Probando algoritmo " + entrada.algoritmo
+                    + " (" + entrada.drones + " drones, " + entrada.bahias + " bahías)");
+            correrTrabajador(me, entrada);
         }
     }
 
+    // Hilo MPI del maestro: una recepción persistente por trabajador, todas
+    // pendientes a la vez. Waitany atiende la que termine primero, copia sus
+    // registros a BufferEventos y la vuelve a iniciar sobre el mismo buffer;
+    // el grafo y la gráfica se actualizan en otro hilo (atenderInterfaz).
+    // En el modo por algoritmo hay una recepción más, la de los resúmenes
+    // (rankDe = 0). Cada recepción se retira al recibir su último mensaje (FIN
+    // o el último resumen) y el maestro regresa cuando no queda ninguna.
     private void correrMaestro() {
-        double[] bufferData = new double[2]; // [Rank, Rendimiento]
-        int[] niveles = new int[]{0,0,0,0,0};
-        while (true) {
-            try {
-                Status st = MPI.COMM_WORLD.Probe(MPI.ANY_SOURCE, MPI.ANY_TAG);
-                if (st == null) continue;
-                if (st.tag == TAG_DATA) {
-                    MPI.COMM_WORLD.Recv(bufferData, 0, 2, MPI.DOUBLE, st.source, TAG_DATA);
-                    int rankOrigen = (int) bufferData[0];
-                    double tiempo = bufferData[1];
-                    final String serie = getSeriePorRank(rankOrigen);
-                    int idx = Math.max(0, Math.min(4, rankOrigen - 1));
-                    int nivel = ++niveles[idx];
-                    SwingUtilities.invokeLater(() -> graficasPanel.addPoint(serie, nivel, tiempo));
-                    panelGrafo.setFlechaSolicitud("Nucleo" + rankOrigen, "Estacion");
-                } else if (st.tag == TAG_EVENT) {
-                    int[] ev = new int[2]; // [idDron, accion]
-                    MPI.COMM_WORLD.Recv(ev, 0, 2, MPI.INT, st.source, TAG_EVENT);
-                    int idDron = ev[0];
-                    int accion = ev[1]; // 0=solicitud,1=asignacion/completado
-                    if (accion == 0) {
-                        panelGrafo.setFlechaSolicitud("D" + idDron, "Estacion");
-                    } else {
-                        panelGrafo.setFlechaAsignacion("D" + idDron, "Estacion");
+        int trabajadores = MPI.COMM_WORLD.Size() - 1;
+        if (trabajadores <= 0) return;
+        Thread interfaz = FabricaHilos.iniciar(this::atenderInterfaz, "Maestro-Interfaz");
+
+        int tam = ProtocoloMPJ.tamMensaje(ProtocoloMPJ.EVENTOS_POR_LOTE);
+        int[][] mensajes = new int[trabajadores][tam];
+        long[] resumen = compartido ? null : new long[ResumenMPJ.tamMensaje(trabajadores)];
+        int numRecepciones = compartido ? trabajadores : trabajadores + 1;
+        Prequest[] recepciones = new Prequest[numRecepciones];
+        int[] rankDe = new int[numRecepciones];
+        boolean fallo = false;
+        try {
+            for (int w = 0; w < trabajadores; w++) {
+                rankDe[w] = w + 1;
+                recepciones[w] = MPI.COMM_WORLD.Recv_init(mensajes[w], 0, tam, MPI.INT, w + 1, ProtocoloMPJ.TAG_LOTE);
+            }
+            if (resumen != null) {
+                rankDe[trabajadores] = 0;
+                recepciones[trabajadores] = MPI.COMM_WORLD.Recv_init(resumen, 0, resumen.length, MPI.LONG, 1,
+                        ProtocoloMPJ.TAG_RESUMEN);
+            }
+            Prequest.Startall(recepciones);
+            while (recepciones.length > 0) {
+                Status st = Request.Waitany(recepciones);
+                int i = st.index;
+                int rank = rankDe[i];
+                boolean termino = false;
+                if (rank == 0) {
+                    procesarResumen(resumen);
+                    termino = ResumenMPJ.esUltimo(resumen);
+                } else {
+                    int[] mensaje = mensajes[rank - 1];
+                    int p = 1;
+                    for (int r = 0; r < mensaje[0]; r++) {
+                        termino |= mensaje[p] == ProtocoloMPJ.FIN;
+                        eventos.publicarEsperando(rank, mensaje[p], mensaje[p + 1], mensaje[p + 2]);
+                        p += ProtocoloMPJ.TAM_REGISTRO;
                     }
                 }
-            } catch (MPIException e) {
-                break;
+                if (termino) {
+                    int ultimo = recepciones.length - 1;
+                    recepciones[i] = recepciones[ultimo];
+                    rankDe[i] = rankDe[ultimo];
+                    recepciones = Arrays.copyOf(recepciones, ultimo);
+                    rankDe = Arrays.copyOf(rankDe, ultimo);
+                } else {
+                    recepciones[i].Start();
+                }
+            }
+        } catch (MPIException e) {
+            System.err.println("Maestro (Rank 0): error de MPI, se deja de recibir: " + e.getMessage());
+            e.printStackTrace();
+            fallo = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fallo = true;
+        }
+        eventos.cerrar();
+        if (fallo) {
+            interfaz.interrupt();
+        }
+        try {
+            interfaz.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Un resumen: va completo a los resultados y a la interfaz sólo el tiempo
+    // medio de ronda de cada grupo de la asignación (la media de sus réplicas),
+    // como un registro RONDA con id = grupo
+    private void procesarResumen(long[] resumen) throws InterruptedException {
+        if (resultados != null) {
+            resultados.registrarResumen(resumen);
+        }
+        int grupos = asignacion.numGrupos();
+        long[] sumaUs = new long[grupos];
+        long[] replicas = new long[grupos];
+        for (int rank = 1; rank <= ResumenMPJ.trabajadores(resumen); rank++) {
+            long numRondas = ResumenMPJ.fila(resumen, rank, ResumenMPJ.RONDAS);
+            if (numRondas > 0) {
+                int g = asignacion.porRank(rank).grupo;
+                sumaUs[g] += ResumenMPJ.fila(resumen, rank, ResumenMPJ.TIEMPO_RONDAS_US) / numRondas;
+                replicas[g]++;
+            }
+        }
+        for (int g = 0; g < grupos; g++) {
+            if (replicas[g] > 0) {
+                long mediaUs = sumaUs[g] / replicas[g];
+                eventos.publicarEsperando(0, ProtocoloMPJ.RONDA, g, (int) Math.min(Integer.MAX_VALUE, mediaUs));
             }
         }
     }
 
-    private void correrTrabajador(int rank, String algoritmo) {
-        int numDrones = 20;
-        int bahias = 3;
-        GestorEstacion estacion = new GestorEstacion(bahias, algoritmo);
-        Random rand = new Random();
+    // Consumidor de BufferEventos: aplica los registros al grafo y a la gráfica
+    // sin detener la recepción de mensajes
+    private void atenderInterfaz() {
+        int[] niveles = new int[asignacion.numGrupos()];
+        BufferEventos.Lector lector = (rank, tipo, id, marca, valor) -> {
+            // En el modo por algoritmo las cifras ya llegaron en los resúmenes
+            if (resultados != null && (compartido || tipo == ProtocoloMPJ.FIN)) {
+                resultados.registrar(rank, tipo, valor);
+            }
+            if (panelGrafo == null) return;
+            switch (tipo) {
+                case ProtocoloMPJ.SOLICITUD:
+                    panelGrafo.setFlechaSolicitud("D" + id, "Estacion");
+                    break;
+                case ProtocoloMPJ.COMPLETADO:
+                    panelGrafo.setFlechaAsignacion("D" + id, "Estacion");
+                    break;
+                case ProtocoloMPJ.RONDA:
+                    // En el modo compartido la RONDA es la duración total de un shard
+                    if (compartido) break;
+                    graficasPanel.addPoint(asignacion.serie(id), ++niveles[id], valor / 1000.0);
+                    panelGrafo.setFlechaSolicitud("Nucleo" + (id + 1), "Estacion");
+                    break;
+            }
+        };
+        try {
+            while (!eventos.estaCerrado() || !eventos.estaVacio()) {
+                eventos.esperar();
+                eventos.drenar(lector);
+            }
+        } catch (InterruptedException e) {
+            eventos.drenar(lector);
+        }
+    }
 
-        double[] bufferEnvio = new double[2];
+    private void correrTrabajador(int rank, AsignacionRanks.Entrada entrada) {
+        GestorEstacion estacion = new GestorEstacion(entrada.bahias, entrada.algoritmo);
+        Random rand = asignacion.aleatorio(rank);
+        ProtocoloMPJ.Lote lote = new ProtocoloMPJ.Lote(0);
 
-        while (true) {
-            long inicio = System.nanoTime();
+        int ronda = 0;
+        try {
+            ResumenMPJ resumen = new ResumenMPJ(comunicadorTrabajadores);
+            while (rondas == 0 || ronda < rondas) {
+                long inicio = System.nanoTime();
 
-            try {
-                for (int i = 0; i < numDrones; i++) {
+                for (int i = 0; i < entrada.drones; i++) {
                     boolean critico = rand.nextBoolean();
-                    // Evento: solicitud de dron
-                    int[] evSolicitud = new int[]{i, 0};
-                    MPI.COMM_WORLD.Send(evSolicitud, 0, 2, MPI.INT, 0, TAG_EVENT);
+                    if (eventosDetallados) lote.agregar(ProtocoloMPJ.SOLICITUD, i, 0);
+                    long pedido = System.nanoTime();
                     estacion.solicitarRecarga(i, critico);
+                    int esperaUs = (int) ((System.nanoTime() - pedido) / 1_000);
                     Thread.sleep(rand.nextInt(10) + 1);
-                    estacion.liberarBahia();
-                    // Evento: asignación/completado
-                    int[] evAsignacion = new int[]{i, 1};
-                    MPI.COMM_WORLD.Send(evAsignacion, 0, 2, MPI.INT, 0, TAG_EVENT);
+                    estacion.liberarBahia(i);
+                    resumen.registrarRecarga(critico, esperaUs);
+                    if (eventosDetallados) lote.agregar(ProtocoloMPJ.COMPLETADO, i, esperaUs);
                 }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-
-            long fin = System.nanoTime();
-            double tiempoMs = (fin - inicio) / 1_000_000.0;
 
-            bufferEnvio[0] = (double) rank;
-            bufferEnvio[1] = tiempoMs;
-
-            try {
-                MPI.COMM_WORLD.Send(bufferEnvio, 0, 2, MPI.DOUBLE, 0, TAG_DATA);
-                Thread.sleep(500);
-            } catch (Exception e) {
-                e.printStackTrace();
+                resumen.registrarRonda((System.nanoTime() - inicio) / 1_000);
+                // Fin de ronda: no dejar eventos esperando durante la pausa
+                lote.enviar();
+                ronda++;
+                // Colectiva bloqueante: sincroniza a todos los trabajadores
+                if (cadencia > 0 && ronda % cadencia == 0 && ronda != rondas) {
+                    resumen.reducir(false);
+                }
+                if (pausaMs > 0) Thread.sleep(pausaMs);
             }
+            // Todos los trabajadores llegan aquí en la misma ronda
+            resumen.reducir(true);
+            lote.agregar(ProtocoloMPJ.FIN, rank, ronda);
+            lote.enviar();
+        } catch (MPIException e) {
+            System.err.println("Nucleo " + rank + ": error de MPI en la ronda " + ronda + ": " + e.getMessage());
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -127,22 +351,17 @@ public class EstacionSolarMPJ {
         }
     }
 
-    private String getSeriePorRank(int rank) {
-        switch (rank) {
-            case 1: return "Núcleo 1 (Mutex)";
-            case 2: return "Núcleo 2 (Semáforos)";
-            case 3: return "Núcleo 3 (Monitores)";
-            case 4: return "Núcleo 4 (Var. Cond)";
-            default: return "Núcleo 5 (Barreras)";
-        }
-    }
-
     public static void main(String[] args) {
         try {
-            MPI.Init(args);
+            String[] argumentos = MPI.Init(args);
+            Map<String, String> opciones = BenchmarkGestorEstacion.leerOpciones(argumentos);
             int rank = MPI.COMM_WORLD.Rank();
 
-            if (rank == 0) {
+            if (esHeadless(opciones)) {
+                // Todos los ranks terminan solos después de sus rondas
+                new EstacionSolarMPJ(null, null, opciones).iniciar(argumentos);
+                MPI.Finalize();
+            } else if (rank == 0) {
                 SwingUtilities.invokeLater(() -> {
                     JFrame frame = new JFrame("Estación Solar (MPJ Benchmark)");
                     frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -150,14 +369,10 @@ public class EstacionSolarMPJ {
 
                     GraficasPanel graficas = new GraficasPanel();
                     graficas.resetSeries("Comparativa de Eficiencia (MPI)",
-                            "Núcleo 1 (Mutex)",
-                            "Núcleo 2 (Semáforos)",
-                            "Núcleo 3 (Monitores)",
-                            "Núcleo 4 (Var. Cond)",
-                            "Núcleo 5 (Barreras)");
+                            new AsignacionRanks(opciones).series());
                     PanelGrafoDinamico grafo = new PanelGrafoDinamico();
                     // Modo inicial según args: "drones" o "algoritmos" (por defecto)
-                    if (args != null && args.length > 0 && "drones".equalsIgnoreCase(args[0])) {
+                    if (argumentos.length > 0 && "drones".equalsIgnoreCase(argumentos[0])) {
                         grafo.inicializarGrafo("EstacionSolarDrones");
                     } else {
                         grafo.inicializarGrafo("EstacionSolar");
@@ -188,8 +403,8 @@ public class EstacionSolarMPJ {
 
                     new Thread(() -> {
                         try {
-                            EstacionSolarMPJ estacion = new EstacionSolarMPJ(graficas, grafo);
-                            estacion.iniciar(new String[]{});
+                            EstacionSolarMPJ estacion = new EstacionSolarMPJ(graficas, grafo, opciones);
+                            estacion.iniciar(argumentos);
                         } catch (Exception ex) {
                             JOptionPane.showMessageDialog(frame,
                                 "Error iniciando MPJ: " + ex.getMessage());
@@ -199,14 +414,17 @@ public class EstacionSolarMPJ {
                     frame.addWindowListener(new java.awt.event.WindowAdapter() {
                         @Override
                         public void windowClosing(java.awt.event.WindowEvent e) {
+                            graficas.cerrarVolcado();
                             try { MPI.Finalize(); } catch (Exception ignored) {}
                             System.exit(0);
                         }
                     });
                 });
             } else {
-                EstacionSolarMPJ estacion = new EstacionSolarMPJ(null, null);
-                estacion.iniciar(new String[]{});
+                EstacionSolarMPJ estacion = new EstacionSolarMPJ(null, null, opciones);
+                estacion.iniciar(argumentos);
+                // Sólo llega aquí si se pidió un número de rondas
+                MPI.Finalize();
             }
         } catch (Exception e) {
             e.printStackTrace();
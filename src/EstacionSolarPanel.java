@@ -1,13 +1,8 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.Random;
-import java.util.concurrent.Semaphore;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.LinkedList;
 
 public class EstacionSolarPanel extends JPanel implements Simulable {
     private static final int NUM_BAHIAS = 3;
@@ -25,9 +20,8 @@ public class EstacionSolarPanel extends JPanel implements Simulable {
     private volatile int[] dronPosX, dronPosY;
     private volatile int[] dronBateria;
     
-    private final EstacionSolarMonitor estacionMonitor;
-    private final EstacionSolarSemaforo estacionSemaforo;
-    private final EstacionSolarCondicion estacionCondicion;
+    private final EstacionCarga estacion;
+    private final HistogramaLatencia latenciaAsignacion = new HistogramaLatencia();
     private final String tipoSincronizacion;
     private final PanelGrafoDinamico panelGrafo;
     private final Random random = new Random();
@@ -66,25 +60,12 @@ public class EstacionSolarPanel extends JPanel implements Simulable {
             dronPosY[i] = random.nextInt(ALTO_PANEL - 100) + 50;
         }
         
-        // Inicializar monitor según el tipo de sincronización
-        if ("Semáforo".equals(tipoSincronizacion)) {
-            this.estacionSemaforo = new EstacionSolarSemaforo(NUM_BAHIAS, this, panelGrafo);
-            this.estacionMonitor = null;
-            this.estacionCondicion = null;
-        } else if ("Monitores".equals(tipoSincronizacion)) {
-            this.estacionMonitor = new EstacionSolarMonitor(NUM_BAHIAS, this, panelGrafo);
-            this.estacionSemaforo = null;
-            this.estacionCondicion = null;
-        } else if ("Variable de Condición".equals(tipoSincronizacion)) {
-            this.estacionCondicion = new EstacionSolarCondicion(NUM_BAHIAS, this, panelGrafo);
-            this.estacionMonitor = null;
-            this.estacionSemaforo = null;
-        } else {
-            // Por defecto usamos Monitores
-            this.estacionMonitor = new EstacionSolarMonitor(NUM_BAHIAS, this, panelGrafo);
-            this.estacionSemaforo = null;
-            this.estacionCondicion = null;
-        }
+        // Estación según el tipo de sincronización; por defecto usamos Monitores
+        String algoritmo = EstacionesCarga.existe(tipoSincronizacion) ? tipoSincronizacion : "Monitores";
+        this.estacion = EstacionesCarga.crear(algoritmo, NUM_BAHIAS,
+                new ObservadorGrafoEstacion(panelGrafo, "Estacion",
+                        this::setBahiasDisponibles, this::setEnergiaSolar, this::setModoActivo),
+                latenciaAsignacion);
         
         iniciarSimulacion();
     }
@@ -93,7 +74,7 @@ public class EstacionSolarPanel extends JPanel implements Simulable {
         // Crear y arrancar hilos de drones
         for (int i = 0; i < NUM_DRONES; i++) {
             final int idDron = i;
-            Thread dronThread = new Thread(() -> {
+            Thread dronThread = FabricaHilos.crear(() -> {
                 dronTrabajo(idDron);
             }, "Dron-" + i);
             hilos.add(dronThread);
@@ -101,7 +82,7 @@ public class EstacionSolarPanel extends JPanel implements Simulable {
         }
         
         // Crear y arrancar hilo del administrador energético
-        Thread adminThread = new Thread(() -> {
+        Thread adminThread = FabricaHilos.crear(() -> {
             administradorEnergetico();
         }, "Administrador");
         hilos.add(adminThread);
@@ -129,13 +110,7 @@ public class EstacionSolarPanel extends JPanel implements Simulable {
                 // Fase 2: Solicitar recarga
                 panelGrafo.agregarNodo("Dron" + idDron, "Solicitando recarga");
                 
-                if ("Semáforo".equals(tipoSincronizacion)) {
-                    estacionSemaforo.solicitarRecarga(idDron, dronCritico[idDron]);
-                } else if ("Monitores".equals(tipoSincronizacion)) {
-                    estacionMonitor.solicitarRecarga(idDron, dronCritico[idDron]);
-                } else if ("Variable de Condición".equals(tipoSincronizacion)) {
-                    estacionCondicion.solicitarRecarga(idDron, dronCritico[idDron]);
-                }
+                estacion.solicitarRecarga(idDron, dronCritico[idDron]);
                 
                 // Fase 3: Recargar
                 dronEstado[idDron] = true;
@@ -151,13 +126,7 @@ public class EstacionSolarPanel extends JPanel implements Simulable {
                 // Fase 4: Liberar bahía
                 panelGrafo.agregarNodo("Dron" + idDron, "Liberando bahía");
                 
-                if ("Semáforo".equals(tipoSincronizacion)) {
-                    estacionSemaforo.liberarBahia(idDron);
-                } else if ("Monitores".equals(tipoSincronizacion)) {
-                    estacionMonitor.liberarBahia(idDron);
-                } else if ("Variable de Condición".equals(tipoSincronizacion)) {
-                    estacionCondicion.liberarBahia(idDron);
-                }
+                estacion.liberarBahia(idDron);
                 
                 panelGrafo.agregarNodo("Dron" + idDron, "Recarga completa");
                 
@@ -183,14 +152,8 @@ public class EstacionSolarPanel extends JPanel implements Simulable {
                 boolean modoAnterior = modoActivo;
                 modoActivo = energiaSolar > 0;
                 
-                // Actualizar en el monitor/semáforo
-                if ("Semáforo".equals(tipoSincronizacion)) {
-                    estacionSemaforo.actualizarEnergia(energiaSolar);
-                } else if ("Monitores".equals(tipoSincronizacion)) {
-                    estacionMonitor.actualizarEnergia(energiaSolar);
-                } else if ("Variable de Condición".equals(tipoSincronizacion)) {
-                    estacionCondicion.actualizarEnergia(energiaSolar);
-                }
+                // Actualizar en la estación
+                estacion.actualizarEnergia(energiaSolar);
                 
                 // Si la energía se restableció, notificar
                 if (!modoAnterior && modoActivo) {
@@ -339,275 +302,13 @@ public class EstacionSolarPanel extends JPanel implements Simulable {
         for (Thread hilo : hilos) {
             hilo.interrupt();
         }
+        System.out.println("Latencia de asignación (" + tipoSincronizacion + "): " + getLatenciaAsignacion().resumen());
     }
     
-    // Implementación con Monitores
-    private static class EstacionSolarMonitor {
-        private int bahias;
-        private int energiaSolar;
-        private boolean modoActivo;
-        private final Queue<Integer> colaCriticos;
-        private final Queue<Integer> colaNormales;
-        private final EstacionSolarPanel panel;
-        private final PanelGrafoDinamico panelGrafo;
-        
-        public EstacionSolarMonitor(int bahias, EstacionSolarPanel panel, PanelGrafoDinamico panelGrafo) {
-            this.bahias = bahias;
-            this.energiaSolar = 100;
-            this.modoActivo = true;
-            this.colaCriticos = new LinkedList<>();
-            this.colaNormales = new LinkedList<>();
-            this.panel = panel;
-            this.panelGrafo = panelGrafo;
-        }
-        
-        public synchronized void solicitarRecarga(int idDron, boolean critico) {
-            panelGrafo.agregarNodo("Estacion", "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
-            
-            // Agregar a la cola correspondiente
-            if (critico) {
-                colaCriticos.offer(idDron);
-            } else {
-                colaNormales.offer(idDron);
-            }
-            
-            // Esperar hasta que se pueda cargar
-            while (!modoActivo || bahias == 0 || 
-                   (critico && !colaCriticos.peek().equals(idDron)) ||
-                   (!critico && (!colaCriticos.isEmpty() || !colaNormales.peek().equals(idDron)))) {
-                try {
-                    wait();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
-            
-            // Asignar recursos
-            bahias--;
-            if (critico) {
-                colaCriticos.poll();
-            } else {
-                colaNormales.poll();
-            }
-            
-            panel.setBahiasDisponibles(bahias);
-            panelGrafo.agregarNodo("Estacion", "Bahía asignada a Dron" + idDron);
-            notifyAll();
-        }
-        
-        public synchronized void liberarBahia(int idDron) {
-            bahias++;
-            panel.setBahiasDisponibles(bahias);
-            panelGrafo.agregarNodo("Estacion", "Bahía liberada por Dron" + idDron);
-            notifyAll();
-        }
-        
-        public synchronized void actualizarEnergia(int nuevaEnergia) {
-            energiaSolar = nuevaEnergia;
-            modoActivo = energiaSolar > 0;
-            panel.setEnergiaSolar(energiaSolar);
-            panel.setModoActivo(modoActivo);
-            
-            if (modoActivo) {
-                panelGrafo.agregarNodo("Estacion", "Energía actualizada: " + energiaSolar);
-                notifyAll();
-            }
-        }
-    }
-    
-    // Implementación con Semáforos
-    private static class EstacionSolarSemaforo {
-        private final Semaphore bahiasSemaforo;
-        private final Semaphore mutex;
-        private int bahias;
-        private int energiaSolar;
-        private boolean modoActivo;
-        private final Queue<Integer> colaCriticos;
-        private final Queue<Integer> colaNormales;
-        private final EstacionSolarPanel panel;
-        private final PanelGrafoDinamico panelGrafo;
-        
-        public EstacionSolarSemaforo(int numBahias, EstacionSolarPanel panel, PanelGrafoDinamico panelGrafo) {
-            this.bahiasSemaforo = new Semaphore(numBahias);
-            this.mutex = new Semaphore(1);
-            this.bahias = numBahias;
-            this.energiaSolar = 100;
-            this.modoActivo = true;
-            this.colaCriticos = new LinkedList<>();
-            this.colaNormales = new LinkedList<>();
-            this.panel = panel;
-            this.panelGrafo = panelGrafo;
-        }
-        
-        public void solicitarRecarga(int idDron, boolean critico) {
-            panelGrafo.agregarNodo("Estacion", "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
-            
-            try {
-                mutex.acquire();
-                
-                // Agregar a la cola correspondiente
-                if (critico) {
-                    colaCriticos.offer(idDron);
-                } else {
-                    colaNormales.offer(idDron);
-                }
-                
-                mutex.release();
-                
-                // Esperar hasta que se pueda cargar
-                while (true) {
-                    mutex.acquire();
-                    
-                    boolean puedeCargar = modoActivo && 
-                        ((critico && colaCriticos.peek() != null && colaCriticos.peek().equals(idDron)) ||
-                         (!critico && colaCriticos.isEmpty() && colaNormales.peek() != null && colaNormales.peek().equals(idDron)));
-                    
-                    if (puedeCargar && bahiasSemaforo.tryAcquire()) {
-                        // Asignar recursos
-                        bahias--;
-                        if (critico) {
-                            colaCriticos.poll();
-                        } else {
-                            colaNormales.poll();
-                        }
-                        
-                        panel.setBahiasDisponibles(bahias);
-                        panelGrafo.agregarNodo("Estacion", "Bahía asignada a Dron" + idDron);
-                        mutex.release();
-                        break;
-                    }
-                    
-                    mutex.release();
-                    Thread.sleep(100); // Esperar un poco antes de reintentar
-                }
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        
-        public void liberarBahia(int idDron) {
-            try {
-                bahiasSemaforo.release();
-                mutex.acquire();
-                bahias++;
-                panel.setBahiasDisponibles(bahias);
-                panelGrafo.agregarNodo("Estacion", "Bahía liberada por Dron" + idDron);
-                mutex.release();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        
-        public void actualizarEnergia(int nuevaEnergia) {
-            try {
-                mutex.acquire();
-                energiaSolar = nuevaEnergia;
-                modoActivo = energiaSolar > 0;
-                panel.setEnergiaSolar(energiaSolar);
-                panel.setModoActivo(modoActivo);
-                
-                if (modoActivo) {
-                    panelGrafo.agregarNodo("Estacion", "Energía actualizada: " + energiaSolar);
-                }
-                mutex.release();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-    }
-    
-    // Implementación con Variables de Condición
-    private static class EstacionSolarCondicion {
-        private int bahias;
-        private int energiaSolar;
-        private boolean modoActivo;
-        private final Queue<Integer> colaCriticos;
-        private final Queue<Integer> colaNormales;
-        private final ReentrantLock lock;
-        private final Condition esperarBahia;
-        private final Condition esperarEnergia;
-        private final EstacionSolarPanel panel;
-        private final PanelGrafoDinamico panelGrafo;
-        
-        public EstacionSolarCondicion(int numBahias, EstacionSolarPanel panel, PanelGrafoDinamico panelGrafo) {
-            this.bahias = numBahias;
-            this.energiaSolar = 100;
-            this.modoActivo = true;
-            this.colaCriticos = new LinkedList<>();
-            this.colaNormales = new LinkedList<>();
-            this.lock = new ReentrantLock();
-            this.esperarBahia = lock.newCondition();
-            this.esperarEnergia = lock.newCondition();
-            this.panel = panel;
-            this.panelGrafo = panelGrafo;
-        }
-        
-        public void solicitarRecarga(int idDron, boolean critico) {
-            panelGrafo.agregarNodo("Estacion", "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
-            
-            lock.lock();
-            try {
-                // Agregar a la cola correspondiente
-                if (critico) {
-                    colaCriticos.offer(idDron);
-                } else {
-                    colaNormales.offer(idDron);
-                }
-                
-                // Esperar hasta que se pueda cargar
-                while (!modoActivo || bahias == 0 || 
-                       (critico && !colaCriticos.peek().equals(idDron)) ||
-                       (!critico && (!colaCriticos.isEmpty() || !colaNormales.peek().equals(idDron)))) {
-                    esperarBahia.await();
-                }
-                
-                // Asignar recursos
-                bahias--;
-                if (critico) {
-                    colaCriticos.poll();
-                } else {
-                    colaNormales.poll();
-                }
-                
-                panel.setBahiasDisponibles(bahias);
-                panelGrafo.agregarNodo("Estacion", "Bahía asignada a Dron" + idDron);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } finally {
-                lock.unlock();
-            }
-        }
-        
-        public void liberarBahia(int idDron) {
-            lock.lock();
-            try {
-                bahias++;
-                panel.setBahiasDisponibles(bahias);
-                panelGrafo.agregarNodo("Estacion", "Bahía liberada por Dron" + idDron);
-                esperarBahia.signalAll();
-            } finally {
-                lock.unlock();
-            }
-        }
-        
-        public void actualizarEnergia(int nuevaEnergia) {
-            lock.lock();
-            try {
-                energiaSolar = nuevaEnergia;
-                modoActivo = energiaSolar > 0;
-                panel.setEnergiaSolar(energiaSolar);
-                panel.setModoActivo(modoActivo);
-                
-                if (modoActivo) {
-                    panelGrafo.agregarNodo("Estacion", "Energía actualizada: " + energiaSolar);
-                    esperarBahia.signalAll();
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
+    /**
+     * Tiempo desde que un dron pide recarga hasta que recibe su bahía.
+     */
+    public HistogramaLatencia getLatenciaAsignacion() {
+        return latenciaAsignacion;
     }
-}
\ No newline at end of file
+}
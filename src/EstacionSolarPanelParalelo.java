@@ -1,14 +1,9 @@
 import javax.swing.*;
 import java.awt.*;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.Random;
-import java.util.concurrent.Semaphore;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.LinkedList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
@@ -27,12 +22,9 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
     private volatile int[] dronPosX, dronPosY;
     private volatile int[] dronBateria;
     
-    // Sistemas de sincronización paralelos
-    private final EstacionSolarMonitor estacionMonitor;
-    private final EstacionSolarSemaforo estacionSemaforo;
-    private final EstacionSolarCondicion estacionCondicion;
-    private final EstacionSolarMutex estacionMutex;
-    private final EstacionSolarBarrera estacionBarrera;
+    // Sistemas de sincronización paralelos, uno por algoritmo (índice ALG_*)
+    private final EstacionCarga[] estaciones;
+    private final HistogramaLatencia[] latencias;
     private final PanelGrafoDinamico panelGrafo;
     private final Random random = new Random();
     private final List<Thread> hilos = new ArrayList<>();
@@ -40,7 +32,7 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
     
     // Control de ejecución paralela
     private final ExecutorService executorParalelo;
-    private final ConcurrentLinkedQueue<ResultadoAlgoritmo> resultadosQueue;
+    private final BufferEventos eventos;
     private final AtomicInteger totalRecargas;
     private final AtomicInteger recargasCriticas;
     private final AtomicInteger recargasNormales;
@@ -60,22 +52,54 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
     private JLabel contadorLabel;
     private AtomicInteger contadorResultados;
     
-    // Clase para almacenar resultados
-    private static class ResultadoAlgoritmo {
-        final String algoritmo;
-        final String tipoEvento;
-        final int idDron;
-        final long timestamp;
-        final int valor;
-        
-        ResultadoAlgoritmo(String algoritmo, String tipoEvento, int idDron, int valor) {
-            this.algoritmo = algoritmo;
-            this.tipoEvento = tipoEvento;
-            this.idDron = idDron;
-            this.timestamp = System.currentTimeMillis();
-            this.valor = valor;
+    // Eventos de los algoritmos: se guardan como enteros en BufferEventos
+    private static final int ALG_MONITORES = 0;
+    private static final int ALG_SEMAFOROS = 1;
+    private static final int ALG_VARIABLES = 2;
+    private static final int ALG_MUTEX = 3;
+    private static final int ALG_BARRERA = 4;
+    private static final String[] NOMBRES_ALGORITMO = {
+        "Monitores", "Semáforos", "Variables de Condición", "Mutex", "Barrera"
+    };
+    // Series de GraficasPanel por algoritmo
+    private static final String[] SERIES_ALGORITMO = {
+        "Núcleo 3 (Monitores)", "Núcleo 2 (Semáforos)", "Núcleo 4 (Var. Cond)", "Núcleo 1 (Mutex)", "Núcleo 5 (Barreras)"
+    };
+    
+    // El tipo de evento es también el valor que se grafica
+    private static final int EVT_SOLICITUD = 1;
+    private static final int EVT_RECARGANDO = 2;
+    private static final int EVT_COMPLETADO = 3;
+    private static final int EVT_FINALIZADO = 4;
+    private static final String[] NOMBRES_EVENTO = {"", "SOLICITUD", "RECARGANDO", "COMPLETADO", "FINALIZADO"};
+    
+    // Ids de los nodos del grafo que usa cada algoritmo
+    private static final String[] NODOS_ALGORITMO = {"Monitores", "Semáforos", "Variables", "Mutex", "Barrera"};
+    // Estrategia de EstacionesCarga de cada algoritmo
+    private static final String[] ESTACION_ALGORITMO = {"Monitores", "Semaforos", "LockCondicion", "Mutex", "Barreras"};
+    
+    private static final int CAPACIDAD_EVENTOS = 4096;
+    
+    // Lote de eventos copiado del buffer para aplicarlo en una sola tarea del EDT.
+    // Hay dos: mientras el EDT aplica uno, el consumidor puede llenar el otro.
+    private static final class LoteEventos implements BufferEventos.Lector {
+        final int[] algoritmos = new int[CAPACIDAD_EVENTOS];
+        final int[] tipos = new int[CAPACIDAD_EVENTOS];
+        final int[] drones = new int[CAPACIDAD_EVENTOS];
+        final long[] marcas = new long[CAPACIDAD_EVENTOS];
+        int cantidad;
+        
+        @Override
+        public void leer(int algoritmo, int tipo, int idDron, long marca, int valor) {
+            algoritmos[cantidad] = algoritmo;
+            tipos[cantidad] = tipo;
+            drones[cantidad] = idDron;
+            marcas[cantidad] = marca;
+            cantidad++;
         }
     }
+    private final BlockingQueue<LoteEventos> lotesLibres = new ArrayBlockingQueue<>(2);
+    private final GraficasPanel.LotePuntos lotePuntos = new GraficasPanel.LotePuntos(CAPACIDAD_EVENTOS); // sólo EDT
     
     public EstacionSolarPanelParalelo(PanelGrafoDinamico panelGrafo, GraficasPanel graficasPanel) {
         this.panelGrafo = panelGrafo;
@@ -90,15 +114,21 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
         add(contadorLabel);
         
         // Inicializar sistemas de sincronización
-        this.estacionMonitor = new EstacionSolarMonitor(NUM_BAHIAS, this, panelGrafo);
-        this.estacionSemaforo = new EstacionSolarSemaforo(NUM_BAHIAS, this, panelGrafo);
-        this.estacionCondicion = new EstacionSolarCondicion(NUM_BAHIAS, this, panelGrafo);
-        this.estacionMutex = new EstacionSolarMutex(NUM_BAHIAS, this, panelGrafo);
-        this.estacionBarrera = new EstacionSolarBarrera(NUM_BAHIAS, this, panelGrafo);
+        this.estaciones = new EstacionCarga[ESTACION_ALGORITMO.length];
+        this.latencias = new HistogramaLatencia[ESTACION_ALGORITMO.length];
+        for (int a = 0; a < estaciones.length; a++) {
+            latencias[a] = new HistogramaLatencia();
+            estaciones[a] = EstacionesCarga.crear(ESTACION_ALGORITMO[a], NUM_BAHIAS,
+                    new ObservadorGrafoEstacion(panelGrafo, NODOS_ALGORITMO[a],
+                            this::setBahiasDisponibles, this::setEnergiaSolar, this::setModoActivo),
+                    latencias[a]);
+        }
         
         // Inicializar control de paralelismo
-        this.executorParalelo = Executors.newFixedThreadPool(6); // 5 algoritmos + 1 procesador
-        this.resultadosQueue = new ConcurrentLinkedQueue<>();
+        this.executorParalelo = Executors.newFixedThreadPool(6, FabricaHilos.fabrica("Paralelo")); // 5 algoritmos + 1 procesador
+        this.eventos = new BufferEventos(CAPACIDAD_EVENTOS);
+        lotesLibres.add(new LoteEventos());
+        lotesLibres.add(new LoteEventos());
         this.totalRecargas = new AtomicInteger(0);
         this.recargasCriticas = new AtomicInteger(0);
         this.recargasNormales = new AtomicInteger(0);
@@ -127,119 +157,23 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
     
     private void iniciarSimulacionParalela() {
         // Iniciar los 5 algoritmos en paralelo
-        executorParalelo.submit(() -> ejecutarAlgoritmoConMonitor("Monitores"));
-        executorParalelo.submit(() -> ejecutarAlgoritmoConSemaforo("Semáforos"));
-        executorParalelo.submit(() -> ejecutarAlgoritmoConCondicion("Variables de Condición"));
-        executorParalelo.submit(() -> ejecutarAlgoritmoConMutex("Mutex"));
-        executorParalelo.submit(() -> ejecutarAlgoritmoConBarrera("Barrera"));
+        for (int a = ALG_MONITORES; a <= ALG_BARRERA; a++) {
+            final int algoritmo = a;
+            executorParalelo.submit(() -> ejecutarAlgoritmo(algoritmo));
+        }
         
         // Iniciar procesador de resultados
         executorParalelo.submit(this::procesarResultados);
         
         // Iniciar administrador energético
-        Thread adminThread = new Thread(this::administradorEnergetico, "Administrador");
+        Thread adminThread = FabricaHilos.crear(this::administradorEnergetico, "Administrador");
         hilos.add(adminThread);
         adminThread.start();
     }
     
-    private void ejecutarAlgoritmoConMonitor(String nombreAlgoritmo) {
-        panelGrafo.agregarNodo("PARALELO", "Algoritmo " + nombreAlgoritmo + " iniciado");
-        
-        int recargasCompletadas = 0;
-        
-        while (simulacionActiva && recargasCompletadas < 15) {
-            try {
-                int idDron = random.nextInt(NUM_DRONES);
-                boolean critico = actualizarEstadoDron(idDron);
-                
-                if (critico || random.nextDouble() < 0.4) {
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "SOLICITUD", idDron, critico ? 1 : 0));
-                    
-                    // Usar monitor para sincronización
-                    estacionMonitor.solicitarRecarga(idDron, critico);
-                    
-                    // Simular recarga
-                    dronEstado[idDron] = true;
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "RECARGANDO", idDron, 0));
-                    
-                    Thread.sleep(random.nextInt(1000) + 500);
-                    
-                    // Completar recarga
-                    dronBateria[idDron] = 100;
-                    dronCritico[idDron] = false;
-                    estacionMonitor.liberarBahia(idDron);
-                    
-                    recargasCompletadas++;
-                    totalRecargas.incrementAndGet();
-                    if (critico) recargasCriticas.incrementAndGet();
-                    else recargasNormales.incrementAndGet();
-                    
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "COMPLETADO", idDron, 0));
-                    dronEstado[idDron] = false;
-                }
-                
-                Thread.sleep(random.nextInt(1000) + 500);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        
-        resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "FINALIZADO", 0, recargasCompletadas));
-        // // System.out.println(nombreAlgoritmo + " finalizado: " + recargasCompletadas + " recargas");
-    }
-    
-    private void ejecutarAlgoritmoConSemaforo(String nombreAlgoritmo) {
-        // // System.out.println("Iniciando algoritmo: " + nombreAlgoritmo);
-        panelGrafo.agregarNodo("PARALELO", "Algoritmo " + nombreAlgoritmo + " iniciado");
-        
-        int recargasCompletadas = 0;
-        
-        while (simulacionActiva && recargasCompletadas < 15) {
-            try {
-                int idDron = random.nextInt(NUM_DRONES);
-                boolean critico = actualizarEstadoDron(idDron);
-                
-                if (critico || random.nextDouble() < 0.4) {
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "SOLICITUD", idDron, critico ? 1 : 0));
-                    
-                    // Usar semáforo para sincronización
-                    estacionSemaforo.solicitarRecarga(idDron, critico);
-                    
-                    // Simular recarga
-                    dronEstado[idDron] = true;
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "RECARGANDO", idDron, 0));
-                    
-                    Thread.sleep(random.nextInt(1000) + 500);
-                    
-                    // Completar recarga
-                    dronBateria[idDron] = 100;
-                    dronCritico[idDron] = false;
-                    estacionSemaforo.liberarBahia(idDron);
-                    
-                    recargasCompletadas++;
-                    totalRecargas.incrementAndGet();
-                    if (critico) recargasCriticas.incrementAndGet();
-                    else recargasNormales.incrementAndGet();
-                    
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "COMPLETADO", idDron, 0));
-                    dronEstado[idDron] = false;
-                }
-                
-                Thread.sleep(random.nextInt(1000) + 500);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        
-        resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "FINALIZADO", 0, recargasCompletadas));
-        System.out.println(nombreAlgoritmo + " finalizado: " + recargasCompletadas + " recargas");
-    }
-    
-    private void ejecutarAlgoritmoConCondicion(String nombreAlgoritmo) {
+    private void ejecutarAlgoritmo(int algoritmo) {
+        String nombreAlgoritmo = NOMBRES_ALGORITMO[algoritmo];
+        EstacionCarga estacion = estaciones[algoritmo];
         System.out.println("Iniciando algoritmo: " + nombreAlgoritmo);
         panelGrafo.agregarNodo("PARALELO", "Algoritmo " + nombreAlgoritmo + " iniciado");
         
@@ -251,28 +185,27 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
                 boolean critico = actualizarEstadoDron(idDron);
                 
                 if (critico || random.nextDouble() < 0.4) {
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "SOLICITUD", idDron, critico ? 1 : 0));
+                    eventos.publicarEsperando(algoritmo, EVT_SOLICITUD, idDron, critico ? 1 : 0);
                     
-                    // Usar variables de condición para sincronización
-                    estacionCondicion.solicitarRecarga(idDron, critico);
+                    estacion.solicitarRecarga(idDron, critico);
                     
                     // Simular recarga
                     dronEstado[idDron] = true;
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "RECARGANDO", idDron, 0));
+                    eventos.publicarEsperando(algoritmo, EVT_RECARGANDO, idDron, 0);
                     
                     Thread.sleep(random.nextInt(1000) + 500);
                     
                     // Completar recarga
                     dronBateria[idDron] = 100;
                     dronCritico[idDron] = false;
-                    estacionCondicion.liberarBahia(idDron);
+                    estacion.liberarBahia(idDron);
                     
                     recargasCompletadas++;
                     totalRecargas.incrementAndGet();
                     if (critico) recargasCriticas.incrementAndGet();
                     else recargasNormales.incrementAndGet();
                     
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "COMPLETADO", idDron, 0));
+                    eventos.publicarEsperando(algoritmo, EVT_COMPLETADO, idDron, 0);
                     dronEstado[idDron] = false;
                 }
                 
@@ -284,7 +217,7 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
             }
         }
         
-        resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "FINALIZADO", 0, recargasCompletadas));
+        eventos.publicar(algoritmo, EVT_FINALIZADO, 0, recargasCompletadas);
         System.out.println(nombreAlgoritmo + " finalizado: " + recargasCompletadas + " recargas");
     }
     
@@ -299,53 +232,21 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
         return dronCritico[idDron];
     }
     
+    // Consumidor: duerme hasta que haya eventos, vacía el buffer completo en un
+    // lote y lo entrega al EDT en una sola tarea. Si el EDT va atrasado no hay
+    // lote libre, el consumidor espera, el buffer se llena y los algoritmos
+    // esperan en publicarEsperando: la memoria nunca crece.
     private void procesarResultados() {
         while (simulacionActiva) {
             try {
-                ResultadoAlgoritmo resultado = resultadosQueue.poll();
-                if (resultado != null) {
-                    contadorResultados.incrementAndGet();
-                    // Actualizar contador en EDT
-                    SwingUtilities.invokeLater(() -> {
-                        contadorLabel.setText("Resultados procesados: " + contadorResultados.get());
-                    });
-                    // Procesar resultado y actualizar gráficos
-                    String etiqueta = resultado.algoritmo + "_" + resultado.tipoEvento;
-                    String detalles = "Dron" + resultado.idDron + " - " + resultado.tipoEvento;
-                    
-                    panelGrafo.agregarNodo(etiqueta, detalles);
-                    
-                    // Mapear nombres de algoritmos a series del gráfico
-                    String nombreSerie = mapearNombreSerie(resultado.algoritmo);
-                    
-                    // Mapear tipos de evento a valores numéricos
-                    int valorEvento = mapearValorEvento(resultado.tipoEvento);
-                    
-                    // Agregar punto al gráfico si tenemos una serie válida
-                    if (nombreSerie != null && graficasPanel != null) {
-                        final String serieFinal = nombreSerie;
-                        final long timestampFinal = resultado.timestamp;
-                        final int valorFinal = valorEvento;
-                        
-                        // Debug: mostrar información del punto a agregar
-                        final String debugInfo = "Agregando punto - Serie: " + serieFinal + ", Tiempo: " + timestampFinal + ", Valor: " + valorFinal;
-                        
-                        // Asegurar que se ejecute en el EDT para actualizar la GUI
-                        SwingUtilities.invokeLater(() -> {
-                            contadorLabel.setText("Resultados: " + contadorResultados.get() + " - " + debugInfo);
-                            graficasPanel.addPoint(serieFinal, timestampFinal, valorFinal);
-                        });
-                    }
-                    
-                    // Actualizar estadísticas en tiempo real
-                    if ("COMPLETADO".equals(resultado.tipoEvento)) {
-                        SwingUtilities.invokeLater(() -> {
-                            repaint(); // Redibujar panel con nuevas estadísticas
-                        });
-                    }
+                eventos.esperar();
+                LoteEventos lote = lotesLibres.take();
+                eventos.drenar(lote, CAPACIDAD_EVENTOS);
+                if (lote.cantidad == 0) {
+                    lotesLibres.add(lote);
+                    continue;
                 }
-                
-                Thread.sleep(50); // Pequeña pausa para no sobrecargar CPU
+                SwingUtilities.invokeLater(() -> aplicarLote(lote));
                 
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -354,37 +255,51 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
         }
     }
     
-    // Métodos de mapeo para conectar con GraficasPanel
-    private String mapearNombreSerie(String nombreAlgoritmo) {
-        switch (nombreAlgoritmo) {
-            case "Monitores":
-                return "Núcleo 3 (Monitores)";
-            case "Semáforos":
-                return "Núcleo 2 (Semáforos)";
-            case "Variables de Condición":
-                return "Núcleo 4 (Var. Cond)";
-            case "Mutex":
-                return "Núcleo 1 (Mutex)";
-            case "Barrera":
-                return "Núcleo 5 (Barreras)";
-            default:
-                return null;
+    // Corre en el EDT: aplica el lote completo al gráfico, al grafo y a la etiqueta
+    private void aplicarLote(LoteEventos lote) {
+        int[] ultimoPorAlgoritmo = {-1, -1, -1, -1, -1};
+        boolean hayCompletados = false;
+        
+        int[] indiceSerie = new int[SERIES_ALGORITMO.length];
+        for (int a = 0; a < indiceSerie.length; a++) {
+            indiceSerie[a] = graficasPanel != null ? graficasPanel.indiceSerie(SERIES_ALGORITMO[a]) : -1;
+        }
+        
+        lotePuntos.limpiar();
+        for (int i = 0; i < lote.cantidad; i++) {
+            int algoritmo = lote.algoritmos[i];
+            // El valor graficado es el tipo de evento
+            if (indiceSerie[algoritmo] >= 0) {
+                lotePuntos.agregar(indiceSerie[algoritmo], lote.marcas[i], lote.tipos[i]);
+            }
+            ultimoPorAlgoritmo[algoritmo] = i;
+            hayCompletados |= lote.tipos[i] == EVT_COMPLETADO;
         }
-    }
-    
-    private int mapearValorEvento(String tipoEvento) {
-        switch (tipoEvento) {
-            case "SOLICITUD":
-                return 1;
-            case "RECARGANDO":
-                return 2;
-            case "COMPLETADO":
-                return 3;
-            case "FINALIZADO":
-                return 4;
-            default:
-                return 0;
+        if (graficasPanel != null) {
+            graficasPanel.addPoints(lotePuntos); // estamos en el EDT: se aplica ya
         }
+        contadorResultados.addAndGet(lote.cantidad);
+        
+        // Los textos se arman sólo para lo visible: el último evento de cada algoritmo
+        for (int algoritmo = 0; algoritmo < ultimoPorAlgoritmo.length; algoritmo++) {
+            int i = ultimoPorAlgoritmo[algoritmo];
+            if (i >= 0) {
+                panelGrafo.agregarNodo(NODOS_ALGORITMO[algoritmo],
+                        "Dron" + lote.drones[i] + " - " + NOMBRES_EVENTO[lote.tipos[i]]);
+            }
+        }
+        int ultimo = lote.cantidad - 1;
+        contadorLabel.setText("Resultados: " + contadorResultados.get() + " - Lote de " + lote.cantidad
+                + " - Serie: " + SERIES_ALGORITMO[lote.algoritmos[ultimo]] + ", Tiempo: " + lote.marcas[ultimo]
+                + ", Valor: " + lote.tipos[ultimo] + " (" + NOMBRES_EVENTO[lote.tipos[ultimo]] + ")");
+        
+        // Actualizar estadísticas en tiempo real
+        if (hayCompletados) {
+            repaint(); // Redibujar panel con nuevas estadísticas
+        }
+        
+        lote.cantidad = 0;
+        lotesLibres.add(lote);
     }
     
     private void administradorEnergetico() {
@@ -403,11 +318,9 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
                 modoActivo = energiaSolar > 0;
                 
                 // Actualizar en todos los sistemas de sincronización
-                estacionMonitor.actualizarEnergia(energiaSolar);
-                estacionSemaforo.actualizarEnergia(energiaSolar);
-                estacionCondicion.actualizarEnergia(energiaSolar);
-                estacionMutex.actualizarEnergia(energiaSolar);
-                estacionBarrera.actualizarEnergia(energiaSolar);
+                for (EstacionCarga estacion : estaciones) {
+                    estacion.actualizarEnergia(energiaSolar);
+                }
                 
                 // Si la energía se restableció, notificar
                 if (!modoAnterior && modoActivo) {
@@ -523,6 +436,7 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
     @Override
     public void detener() {
         simulacionActiva = false;
+        eventos.despertar();
         
         // Detener executor de paralelismo
         executorParalelo.shutdown();
@@ -541,263 +455,15 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
         }
         
         panelGrafo.agregarNodo("PARALELO", "Simulación paralela finalizada");
+        System.out.println("Latencia de asignación por algoritmo:");
+        for (int a = 0; a < latencias.length; a++) {
+            System.out.println(String.format("  %-12s %s", NODOS_ALGORITMO[a] + ":", latencias[a].resumen()));
+        }
         // System.out.println("Simulación paralela detenida");
         // System.out.println("Total recargas: " + totalRecargas.get());
         // System.out.println("Críticas: " + recargasCriticas.get() + ", Normales: " + recargasNormales.get());
     }
     
-    // Clases de sincronización (mismo código que antes, pero adaptadas para paralelismo)
-    private static class EstacionSolarMonitor {
-        private int bahias;
-        private int energiaSolar;
-        private boolean modoActivo;
-        private final Queue<Integer> colaCriticos;
-        private final Queue<Integer> colaNormales;
-        private final EstacionSolarPanelParalelo panel;
-        private final PanelGrafoDinamico panelGrafo;
-        
-        public EstacionSolarMonitor(int numBahias, EstacionSolarPanelParalelo panel, PanelGrafoDinamico panelGrafo) {
-            this.bahias = numBahias;
-            this.energiaSolar = 100;
-            this.modoActivo = true;
-            this.colaCriticos = new LinkedList<>();
-            this.colaNormales = new LinkedList<>();
-            this.panel = panel;
-            this.panelGrafo = panelGrafo;
-        }
-        
-        public synchronized void solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
-            panelGrafo.agregarNodo("Monitores", "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
-            
-            // Agregar a la cola correspondiente
-            if (critico) {
-                colaCriticos.offer(idDron);
-            } else {
-                colaNormales.offer(idDron);
-            }
-            
-            // Esperar hasta que se pueda cargar
-            while (true) {
-                boolean puedeCargar = modoActivo && bahias > 0 &&
-                    ((critico && !colaCriticos.isEmpty() && colaCriticos.peek().equals(idDron)) ||
-                     (!critico && colaCriticos.isEmpty() && !colaNormales.isEmpty() && colaNormales.peek().equals(idDron)));
-                
-                if (puedeCargar) {
-                    // Asignar recursos
-                    bahias--;
-                    if (critico) {
-                        colaCriticos.poll();
-                    } else {
-                        colaNormales.poll();
-                    }
-                    
-                    panel.setBahiasDisponibles(bahias);
-                    panelGrafo.agregarNodo("Monitores", "Bahía asignada a Dron" + idDron);
-                    break;
-                }
-                
-                wait();
-            }
-        }
-        
-        public synchronized void liberarBahia(int idDron) {
-            bahias++;
-            panel.setBahiasDisponibles(bahias);
-            panelGrafo.agregarNodo("Monitores", "Bahía liberada por Dron" + idDron);
-            notifyAll();
-        }
-        
-        public synchronized void actualizarEnergia(int nuevaEnergia) {
-            energiaSolar = nuevaEnergia;
-            modoActivo = energiaSolar > 0;
-            panel.setEnergiaSolar(energiaSolar);
-            panel.setModoActivo(modoActivo);
-            
-            if (modoActivo) {
-                panelGrafo.agregarNodo("Monitores", "Energía actualizada: " + energiaSolar);
-                notifyAll();
-            }
-        }
-    }
-    
-    private static class EstacionSolarSemaforo {
-        private final Semaphore bahiasSemaforo;
-        private final Semaphore mutex;
-        private int bahias;
-        private int energiaSolar;
-        private boolean modoActivo;
-        private final Queue<Integer> colaCriticos;
-        private final Queue<Integer> colaNormales;
-        private final EstacionSolarPanelParalelo panel;
-        private final PanelGrafoDinamico panelGrafo;
-        
-        public EstacionSolarSemaforo(int numBahias, EstacionSolarPanelParalelo panel, PanelGrafoDinamico panelGrafo) {
-            this.bahiasSemaforo = new Semaphore(numBahias);
-            this.mutex = new Semaphore(1);
-            this.bahias = numBahias;
-            this.energiaSolar = 100;
-            this.modoActivo = true;
-            this.colaCriticos = new LinkedList<>();
-            this.colaNormales = new LinkedList<>();
-            this.panel = panel;
-            this.panelGrafo = panelGrafo;
-        }
-        
-        public void solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
-            panelGrafo.agregarNodo("Semáforos", "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
-            
-            mutex.acquire();
-            
-            // Agregar a la cola correspondiente
-            if (critico) {
-                colaCriticos.offer(idDron);
-            } else {
-                colaNormales.offer(idDron);
-            }
-            
-            mutex.release();
-            
-            // Esperar hasta que se pueda cargar
-            while (true) {
-                mutex.acquire();
-                
-                boolean puedeCargar = modoActivo && 
-                    ((critico && !colaCriticos.isEmpty() && colaCriticos.peek().equals(idDron)) ||
-                     (!critico && colaCriticos.isEmpty() && !colaNormales.isEmpty() && colaNormales.peek().equals(idDron)));
-                
-                if (puedeCargar && bahiasSemaforo.tryAcquire()) {
-                    // Asignar recursos
-                    bahias--;
-                    if (critico) {
-                        colaCriticos.poll();
-                    } else {
-                        colaNormales.poll();
-                    }
-                    
-                    panel.setBahiasDisponibles(bahias);
-                    panelGrafo.agregarNodo("Semáforos", "Bahía asignada a Dron" + idDron);
-                    mutex.release();
-                    break;
-                }
-                
-                mutex.release();
-                Thread.sleep(100); // Esperar antes de reintentar
-            }
-        }
-        
-        public void liberarBahia(int idDron) throws InterruptedException {
-            bahiasSemaforo.release();
-            mutex.acquire();
-            bahias++;
-            panel.setBahiasDisponibles(bahias);
-            panelGrafo.agregarNodo("Semáforos", "Bahía liberada por Dron" + idDron);
-            mutex.release();
-        }
-        
-        public void actualizarEnergia(int nuevaEnergia) throws InterruptedException {
-            mutex.acquire();
-            energiaSolar = nuevaEnergia;
-            modoActivo = energiaSolar > 0;
-            panel.setEnergiaSolar(energiaSolar);
-            panel.setModoActivo(modoActivo);
-            mutex.release();
-        }
-    }
-    
-    private static class EstacionSolarCondicion {
-        private final ReentrantLock lock;
-        private final Condition bahiaDisponible;
-        private final Condition energiaDisponible;
-        private int bahias;
-        private int energiaSolar;
-        private boolean modoActivo;
-        private final Queue<Integer> colaCriticos;
-        private final Queue<Integer> colaNormales;
-        private final EstacionSolarPanelParalelo panel;
-        private final PanelGrafoDinamico panelGrafo;
-        
-        public EstacionSolarCondicion(int numBahias, EstacionSolarPanelParalelo panel, PanelGrafoDinamico panelGrafo) {
-            this.lock = new ReentrantLock();
-            this.bahiaDisponible = lock.newCondition();
-            this.energiaDisponible = lock.newCondition();
-            this.bahias = numBahias;
-            this.energiaSolar = 100;
-            this.modoActivo = true;
-            this.colaCriticos = new LinkedList<>();
-            this.colaNormales = new LinkedList<>();
-            this.panel = panel;
-            this.panelGrafo = panelGrafo;
-        }
-        
-        public void solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
-            lock.lock();
-            try {
-                panelGrafo.agregarNodo("Variables", "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
-                
-                // Agregar a la cola correspondiente
-                if (critico) {
-                    colaCriticos.offer(idDron);
-                } else {
-                    colaNormales.offer(idDron);
-                }
-                
-                // Esperar hasta que se pueda cargar
-                while (true) {
-                    boolean puedeCargar = modoActivo && bahias > 0 &&
-                        ((critico && !colaCriticos.isEmpty() && colaCriticos.peek().equals(idDron)) ||
-                         (!critico && colaCriticos.isEmpty() && !colaNormales.isEmpty() && colaNormales.peek().equals(idDron)));
-                    
-                    if (puedeCargar) {
-                        // Asignar recursos
-                        bahias--;
-                        if (critico) {
-                            colaCriticos.poll();
-                        } else {
-                            colaNormales.poll();
-                        }
-                        
-                        panel.setBahiasDisponibles(bahias);
-                        panelGrafo.agregarNodo("Variables", "Bahía asignada a Dron" + idDron);
-                        break;
-                    }
-                    
-                    bahiaDisponible.await();
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-        
-        public void liberarBahia(int idDron) throws InterruptedException {
-            lock.lock();
-            try {
-                bahias++;
-                panel.setBahiasDisponibles(bahias);
-                panelGrafo.agregarNodo("Variables", "Bahía liberada por Dron" + idDron);
-                bahiaDisponible.signal();
-            } finally {
-                lock.unlock();
-            }
-        }
-        
-        public void actualizarEnergia(int nuevaEnergia) throws InterruptedException {
-            lock.lock();
-            try {
-                energiaSolar = nuevaEnergia;
-                modoActivo = energiaSolar > 0;
-                panel.setEnergiaSolar(energiaSolar);
-                panel.setModoActivo(modoActivo);
-                
-                if (modoActivo) {
-                    panelGrafo.agregarNodo("Variables", "Energía actualizada: " + energiaSolar);
-                    energiaDisponible.signalAll();
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-    }
-    
     // Métodos setter para sincronización
     public synchronized void setBahiasDisponibles(int bahias) {
         this.bahiasDisponibles = bahias;
@@ -810,289 +476,4 @@ public class EstacionSolarPanelParalelo extends JPanel implements Simulable {
     public synchronized void setModoActivo(boolean activo) {
         this.modoActivo = activo;
     }
-    
-    private void ejecutarAlgoritmoConMutex(String nombreAlgoritmo) {
-        System.out.println("Iniciando algoritmo: " + nombreAlgoritmo);
-        panelGrafo.agregarNodo("PARALELO", "Algoritmo " + nombreAlgoritmo + " iniciado");
-        
-        int recargasCompletadas = 0;
-        
-        while (simulacionActiva && recargasCompletadas < 15) {
-            try {
-                int idDron = random.nextInt(NUM_DRONES);
-                boolean critico = actualizarEstadoDron(idDron);
-                
-                if (critico || random.nextDouble() < 0.4) {
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "SOLICITUD", idDron, critico ? 1 : 0));
-                    
-                    // Usar mutex para sincronización
-                    estacionMutex.solicitarRecarga(idDron, critico);
-                    
-                    // Simular recarga
-                    dronEstado[idDron] = true;
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "RECARGANDO", idDron, 0));
-                    
-                    Thread.sleep(random.nextInt(1000) + 500);
-                    
-                    // Completar recarga
-                    dronBateria[idDron] = 100;
-                    dronCritico[idDron] = false;
-                    estacionMutex.liberarBahia(idDron);
-                    
-                    recargasCompletadas++;
-                    totalRecargas.incrementAndGet();
-                    if (critico) recargasCriticas.incrementAndGet();
-                    else recargasNormales.incrementAndGet();
-                    
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "COMPLETADO", idDron, 0));
-                    dronEstado[idDron] = false;
-                }
-                
-                Thread.sleep(random.nextInt(1000) + 500);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        
-        resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "FINALIZADO", 0, recargasCompletadas));
-        System.out.println(nombreAlgoritmo + " finalizado: " + recargasCompletadas + " recargas");
-    }
-    
-    private void ejecutarAlgoritmoConBarrera(String nombreAlgoritmo) {
-        System.out.println("Iniciando algoritmo: " + nombreAlgoritmo);
-        panelGrafo.agregarNodo("PARALELO", "Algoritmo " + nombreAlgoritmo + " iniciado");
-        
-        int recargasCompletadas = 0;
-        
-        while (simulacionActiva && recargasCompletadas < 15) {
-            try {
-                int idDron = random.nextInt(NUM_DRONES);
-                boolean critico = actualizarEstadoDron(idDron);
-                
-                if (critico || random.nextDouble() < 0.4) {
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "SOLICITUD", idDron, critico ? 1 : 0));
-                    
-                    // Usar barrera para sincronización
-                    estacionBarrera.solicitarRecarga(idDron, critico);
-                    
-                    // Simular recarga
-                    dronEstado[idDron] = true;
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "RECARGANDO", idDron, 0));
-                    
-                    Thread.sleep(random.nextInt(1000) + 500);
-                    
-                    // Completar recarga
-                    dronBateria[idDron] = 100;
-                    dronCritico[idDron] = false;
-                    estacionBarrera.liberarBahia(idDron);
-                    
-                    recargasCompletadas++;
-                    totalRecargas.incrementAndGet();
-                    if (critico) recargasCriticas.incrementAndGet();
-                    else recargasNormales.incrementAndGet();
-                    
-                    resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "COMPLETADO", idDron, 0));
-                    dronEstado[idDron] = false;
-                }
-                
-                Thread.sleep(random.nextInt(1000) + 500);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        
-        resultadosQueue.offer(new ResultadoAlgoritmo(nombreAlgoritmo, "FINALIZADO", 0, recargasCompletadas));
-        System.out.println(nombreAlgoritmo + " finalizado: " + recargasCompletadas + " recargas");
-    }
-    
-    // Clase para sincronización con Mutex (ReentrantLock)
-    private static class EstacionSolarMutex {
-        private int bahias;
-        private int energiaSolar;
-        private boolean modoActivo;
-        private final Queue<Integer> colaCriticos;
-        private final Queue<Integer> colaNormales;
-        private final EstacionSolarPanelParalelo panel;
-        private final PanelGrafoDinamico panelGrafo;
-        private final ReentrantLock lock;
-        
-        public EstacionSolarMutex(int numBahias, EstacionSolarPanelParalelo panel, PanelGrafoDinamico panelGrafo) {
-            this.bahias = numBahias;
-            this.energiaSolar = 100;
-            this.modoActivo = true;
-            this.colaCriticos = new LinkedList<>();
-            this.colaNormales = new LinkedList<>();
-            this.panel = panel;
-            this.panelGrafo = panelGrafo;
-            this.lock = new ReentrantLock(true); // Fair lock
-        }
-        
-        public void solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
-            panelGrafo.agregarNodo("Mutex", "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
-            
-            lock.lock();
-            try {
-                // Agregar a la cola correspondiente
-                if (critico) {
-                    colaCriticos.offer(idDron);
-                } else {
-                    colaNormales.offer(idDron);
-                }
-                
-                // Esperar hasta que se pueda cargar
-                while (true) {
-                    boolean puedeCargar = modoActivo && bahias > 0 &&
-                        ((critico && !colaCriticos.isEmpty() && colaCriticos.peek().equals(idDron)) ||
-                         (!critico && colaCriticos.isEmpty() && !colaNormales.isEmpty() && colaNormales.peek().equals(idDron)));
-                    
-                    if (puedeCargar) {
-                        // Asignar bahía
-                        bahias--;
-                        panel.setBahiasDisponibles(bahias);
-                        
-                        // Remover de la cola
-                        if (critico) {
-                            colaCriticos.poll();
-                        } else {
-                            colaNormales.poll();
-                        }
-                        
-                        panelGrafo.agregarNodo("Mutex", "Dron" + idDron + " asignado a bahía");
-                        break;
-                    }
-                    
-                    // Esperar un poco antes de reintentar
-                    Thread.sleep(100);
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-        
-        public void liberarBahia(int idDron) {
-            lock.lock();
-            try {
-                bahias++;
-                panel.setBahiasDisponibles(bahias);
-                panelGrafo.agregarNodo("Mutex", "Dron" + idDron + " liberó bahía");
-            } finally {
-                lock.unlock();
-            }
-        }
-        
-        public void actualizarEnergia(int nuevaEnergia) {
-            lock.lock();
-            try {
-                energiaSolar = nuevaEnergia;
-                modoActivo = energiaSolar > 0;
-                panel.setEnergiaSolar(energiaSolar);
-                panel.setModoActivo(modoActivo);
-                
-                if (modoActivo) {
-                    panelGrafo.agregarNodo("Mutex", "Energía actualizada: " + energiaSolar);
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-    }
-    
-    // Clase para sincronización con Barrera (CyclicBarrier)
-    private static class EstacionSolarBarrera {
-        private int bahias;
-        private int energiaSolar;
-        private boolean modoActivo;
-        private final EstacionSolarPanelParalelo panel;
-        private final PanelGrafoDinamico panelGrafo;
-        private final CyclicBarrier barreraRecarga;
-        private final Queue<Integer> dronesEsperando;
-        private final ReentrantLock lock;
-        
-        public EstacionSolarBarrera(int numBahias, EstacionSolarPanelParalelo panel, PanelGrafoDinamico panelGrafo) {
-            this.bahias = numBahias;
-            this.energiaSolar = 100;
-            this.modoActivo = true;
-            this.panel = panel;
-            this.panelGrafo = panelGrafo;
-            this.barreraRecarga = new CyclicBarrier(3, () -> {
-                // Acción cuando se alcanza la barrera
-                panelGrafo.agregarNodo("Barrera", "Grupo formado - procesando recargas");
-            });
-            this.dronesEsperando = new LinkedList<>();
-            this.lock = new ReentrantLock();
-        }
-        
-        public void solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
-            panelGrafo.agregarNodo("Barrera", "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
-            
-            lock.lock();
-            try {
-                dronesEsperando.offer(idDron);
-                
-                // Esperar a que haya suficientes drones para formar un grupo
-                while (dronesEsperando.size() < 3 || bahias < 3) {
-                    if (!modoActivo) {
-                        Thread.sleep(200);
-                        continue;
-                    }
-                    Thread.sleep(100);
-                }
-                
-                // Intentar pasar la barrera
-                try {
-                    panelGrafo.agregarNodo("Barrera", "Dron" + idDron + " esperando en barrera");
-                    barreraRecarga.await();
-                    
-                    // Asignar bahías al grupo
-                    if (bahias >= 3) {
-                        bahias -= 3;
-                        panel.setBahiasDisponibles(bahias);
-                        
-                        // Remover drones del grupo
-                        for (int i = 0; i < 3 && !dronesEsperando.isEmpty(); i++) {
-                            dronesEsperando.poll();
-                        }
-                        
-                        panelGrafo.agregarNodo("Barrera", "Dron" + idDron + " asignado a bahía (grupo)");
-                    }
-                } catch (BrokenBarrierException e) {
-                    panelGrafo.agregarNodo("Barrera", "Barrera rota - reintentando");
-                    Thread.sleep(500);
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-        
-        public void liberarBahia(int idDron) {
-            lock.lock();
-            try {
-                bahias++;
-                panel.setBahiasDisponibles(bahias);
-                panelGrafo.agregarNodo("Barrera", "Dron" + idDron + " liberó bahía");
-            } finally {
-                lock.unlock();
-            }
-        }
-        
-        public void actualizarEnergia(int nuevaEnergia) {
-            lock.lock();
-            try {
-                energiaSolar = nuevaEnergia;
-                modoActivo = energiaSolar > 0;
-                panel.setEnergiaSolar(energiaSolar);
-                panel.setModoActivo(modoActivo);
-                
-                if (modoActivo) {
-                    panelGrafo.agregarNodo("Barrera", "Energía actualizada: " + energiaSolar);
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registro de las estrategias de EstacionCarga por nombre. Los paneles,
+ * GestorEstacion (y con él EstacionSolarMPJ y los benchmarks) crean su
+ * estación aquí, así todos corren la misma implementación de cada algoritmo.
+ *
+ *   Monitores            candado con una condición por dron: sólo se despierta a la cabeza
+ *   MonitoresSignalAll   candado con una sola condición y signalAll (para comparar)
+ *   LockCondicion        igual que MonitoresSignalAll
+ *   Mutex                candado justo con una condición por dron (despertar dirigido)
+ *   MutexSignalAll       candado justo con una sola condición y signalAll (para comparar)
+ *   Semaforos            semáforos con paso de testigo
+ *   Barreras             los drones entran en grupos (ver EstacionBarrera)
+ *   LockFree             CAS y LockSupport (AsignadorLockFree)
+ *
+ * También se aceptan los nombres del menú de la aplicación ("Semáforo",
+ * "Variable de Condición", "Barrera").
+ *
+ * Cada estación sale envuelta en EstacionConEventos para los eventos JFR.
+ */
+final class EstacionesCarga {
+
+    /**
+     * Crea una estación. latencia puede ser null si no se quiere medir el
+     * tiempo hasta la asignación.
+     */
+    interface Fabrica {
+        EstacionCarga crear(int bahias, ObservadorEstacion observador, HistogramaLatencia latencia);
+    }
+
+    private static final Map<String, Fabrica> FABRICAS = new LinkedHashMap<>();
+
+    static {
+        registrar("Monitores", (b, o, l) -> new EstacionMonitor(b, false, true, o, l));
+        registrar("MonitoresSignalAll", (b, o, l) -> new EstacionMonitor(b, false, false, o, l));
+        registrar("LockCondicion", (b, o, l) -> new EstacionMonitor(b, false, false, o, l));
+        registrar("Mutex", (b, o, l) -> new EstacionMonitor(b, true, true, o, l));
+        registrar("MutexSignalAll", (b, o, l) -> new EstacionMonitor(b, true, false, o, l));
+        registrar("Semaforos", EstacionSemaforo::new);
+        registrar("Barreras", EstacionBarrera::new);
+        registrar("LockFree", EstacionLockFree::new);
+
+        registrar("Semáforo", FABRICAS.get("Semaforos"));
+        registrar("Variable de Condición", FABRICAS.get("LockCondicion"));
+        registrar("Barrera", FABRICAS.get("Barreras"));
+    }
+
+    private EstacionesCarga() {
+    }
+
+    static void registrar(String nombre, Fabrica fabrica) {
+        FABRICAS.put(nombre, fabrica);
+    }
+
+    static boolean existe(String nombre) {
+        return FABRICAS.containsKey(nombre);
+    }
+
+    static Set<String> nombres() {
+        return FABRICAS.keySet();
+    }
+
+    static EstacionCarga crear(String nombre, int bahias, ObservadorEstacion observador, HistogramaLatencia latencia) {
+        Fabrica fabrica = FABRICAS.get(nombre);
+        if (fabrica == null) {
+            throw new IllegalArgumentException("Algoritmo de estación desconocido: " + nombre + " (hay " + nombres() + ")");
+        }
+        return new EstacionConEventos(fabrica.crear(bahias, observador, latencia), nombre);
+    }
+}
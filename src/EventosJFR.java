@@ -0,0 +1,117 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos propios de Java Flight Recorder para ver la contención en JMC.
+ *
+ * Se emiten con el patrón de JFR: crear el evento, begin() antes de esperar y
+ * commit() después, llenando los campos sólo si shouldCommit(). Los caminos
+ * calientes (EstacionConEventos) además preguntan antes activos() y si están
+ * apagados no crean nada; en los paneles el costo es despreciable frente a
+ * sus sleep. Los de bahía se encienden a propósito y no cada vez que JFR
+ * corre: DetectorPinning arranca JFR en el modo de hilos virtuales y los
+ * benchmarks pagarían los eventos sólo en ese modo. Para grabar:
+ *   java -XX:StartFlightRecording=filename=estacion.jfr,settings=profile
+ *        -Dsimulacion.eventosJfr=true ...
+ * y en JMC buscar la categoría PtoyectoPCyPoto2025.
+ */
+final class EventosJFR {
+
+    private static volatile boolean activos = Boolean.getBoolean("simulacion.eventosJfr");
+
+    private EventosJFR() {
+    }
+
+    /**
+     * true si se pidieron los eventos de bahía (-Dsimulacion.eventosJfr=true
+     * o setActivos). Con false los caminos calientes no crean eventos.
+     */
+    static boolean activos() {
+        return activos;
+    }
+
+    /** Para encenderlos sin reiniciar, por ejemplo antes de un jcmd JFR.start. */
+    static void setActivos(boolean activo) {
+        activos = activo;
+    }
+
+    @Name("PtoyectoPCyPoto2025.BayRequested")
+    @Label("Bahía solicitada")
+    @Category({"PtoyectoPCyPoto2025", "Estación Solar"})
+    @StackTrace(false)
+    static final class BayRequested extends Event {
+        @Label("Dron")
+        int idDron;
+
+        @Label("Crítico")
+        boolean critico;
+
+        @Label("Algoritmo")
+        String algoritmo;
+    }
+
+    @Name("PtoyectoPCyPoto2025.BayGranted")
+    @Label("Bahía asignada")
+    @Description("La duración es la espera desde la solicitud hasta tener la bahía")
+    @Category({"PtoyectoPCyPoto2025", "Estación Solar"})
+    @StackTrace(false)
+    static final class BayGranted extends Event {
+        @Label("Dron")
+        int idDron;
+
+        @Label("Crítico")
+        boolean critico;
+
+        @Label("Algoritmo")
+        String algoritmo;
+
+        @Label("Concedida")
+        @Description("false si venció el plazo de intentarRecarga")
+        boolean concedida;
+    }
+
+    @Name("PtoyectoPCyPoto2025.BayReleased")
+    @Label("Bahía liberada")
+    @Category({"PtoyectoPCyPoto2025", "Estación Solar"})
+    @StackTrace(false)
+    static final class BayReleased extends Event {
+        @Label("Dron")
+        int idDron;
+
+        @Label("Algoritmo")
+        String algoritmo;
+    }
+
+    @Name("PtoyectoPCyPoto2025.ForkAcquired")
+    @Label("Tenedor tomado")
+    @Description("La duración es la espera por el tenedor")
+    @Category({"PtoyectoPCyPoto2025", "Filósofos"})
+    @StackTrace(false)
+    static final class ForkAcquired extends Event {
+        @Label("Filósofo")
+        int filosofo;
+
+        @Label("Tenedor")
+        int tenedor;
+
+        @Label("Algoritmo")
+        String algoritmo;
+    }
+
+    @Name("PtoyectoPCyPoto2025.BarberWoke")
+    @Label("Barbero despierta")
+    @Description("La duración es lo que el barbero durmió esperando clientes")
+    @Category({"PtoyectoPCyPoto2025", "Barbero Dormilón"})
+    @StackTrace(false)
+    static final class BarberWoke extends Event {
+        @Label("Cliente")
+        int cliente;
+
+        @Label("Algoritmo")
+        String algoritmo;
+    }
+}
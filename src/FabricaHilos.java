@@ -0,0 +1,70 @@
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Punto único para crear los hilos de las simulaciones (drones, clientes del
+ * barbero, filósofos, fumadores y los algoritmos del panel paralelo).
+ *
+ * Por defecto se usan hilos de plataforma, como siempre. Con hilos virtuales
+ * (Java 21) se pueden simular cientos de miles de drones contra una sola
+ * estación. El modo se elige con -Dsimulacion.hilosVirtuales=true o desde el
+ * menú Sincronización, y aplica a las simulaciones que se inicien después.
+ *
+ * Al activar los hilos virtuales también se arranca DetectorPinning, que
+ * reporta los lugares donde un hilo virtual queda fijo a su portador
+ * (un synchronized con espera; EstacionMonitor usa ReentrantLock para evitarlo).
+ */
+public final class FabricaHilos {
+
+    private static volatile boolean hilosVirtuales = false;
+
+    static {
+        if (Boolean.getBoolean("simulacion.hilosVirtuales")) {
+            setHilosVirtuales(true);
+        }
+    }
+
+    private FabricaHilos() {
+    }
+
+    public static boolean usaHilosVirtuales() {
+        return hilosVirtuales;
+    }
+
+    public static void setHilosVirtuales(boolean activo) {
+        hilosVirtuales = activo;
+        if (activo) {
+            DetectorPinning.iniciar();
+        }
+    }
+
+    /**
+     * Crea un hilo sin iniciarlo, del tipo seleccionado actualmente.
+     */
+    public static Thread crear(Runnable tarea, String nombre) {
+        if (hilosVirtuales) {
+            return Thread.ofVirtual().name(nombre).unstarted(tarea);
+        }
+        return new Thread(tarea, nombre);
+    }
+
+    /**
+     * Crea e inicia un hilo del tipo seleccionado actualmente.
+     */
+    public static Thread iniciar(Runnable tarea, String nombre) {
+        Thread hilo = crear(tarea, nombre);
+        hilo.start();
+        return hilo;
+    }
+
+    /**
+     * ThreadFactory para ejecutores; el tipo de hilo se fija al crear la fábrica.
+     */
+    public static ThreadFactory fabrica(String prefijo) {
+        if (hilosVirtuales) {
+            return Thread.ofVirtual().name(prefijo + "-", 0).factory();
+        }
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> new Thread(tarea, prefijo + "-" + contador.getAndIncrement());
+    }
+}
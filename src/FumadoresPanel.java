@@ -77,43 +77,43 @@ public class FumadoresPanel extends JPanel implements Simulable {
 
         if ("Semáforo".equals(tipoSincronizacion)) {
             AgenteSemaforo agente = new AgenteSemaforo(monitorMesaSemaforo);
-            simulationThreads.add(new Thread(agente));
+            simulationThreads.add(FabricaHilos.crear(agente, "Agente"));
             FumadorSemaforo f0 = new FumadorSemaforo(0, TABACO, monitorMesaSemaforo);
-            simulationThreads.add(new Thread(f0));
+            simulationThreads.add(FabricaHilos.crear(f0, "Fumador-0"));
             FumadorSemaforo f1 = new FumadorSemaforo(1, PAPEL, monitorMesaSemaforo);
-            simulationThreads.add(new Thread(f1));
+            simulationThreads.add(FabricaHilos.crear(f1, "Fumador-1"));
             FumadorSemaforo f2 = new FumadorSemaforo(2, FOSFOROS, monitorMesaSemaforo);
-            simulationThreads.add(new Thread(f2));
+            simulationThreads.add(FabricaHilos.crear(f2, "Fumador-2"));
 
         } else if ("Variable de Condición".equals(tipoSincronizacion)) {
             AgenteCondicion agente = new AgenteCondicion(monitorMesaCondicion);
-            simulationThreads.add(new Thread(agente));
+            simulationThreads.add(FabricaHilos.crear(agente, "Agente"));
             FumadorCondicion f0 = new FumadorCondicion(0, TABACO, monitorMesaCondicion);
-            simulationThreads.add(new Thread(f0));
+            simulationThreads.add(FabricaHilos.crear(f0, "Fumador-0"));
             FumadorCondicion f1 = new FumadorCondicion(1, PAPEL, monitorMesaCondicion);
-            simulationThreads.add(new Thread(f1));
+            simulationThreads.add(FabricaHilos.crear(f1, "Fumador-1"));
             FumadorCondicion f2 = new FumadorCondicion(2, FOSFOROS, monitorMesaCondicion);
-            simulationThreads.add(new Thread(f2));
+            simulationThreads.add(FabricaHilos.crear(f2, "Fumador-2"));
 
         } else if ("Monitores".equals(tipoSincronizacion)) {
             AgenteMonitores agente = new AgenteMonitores(monitorMesaMonitores);
-            simulationThreads.add(new Thread(agente));
+            simulationThreads.add(FabricaHilos.crear(agente, "Agente"));
             FumadorMonitores f0 = new FumadorMonitores(0, TABACO, monitorMesaMonitores);
-            simulationThreads.add(new Thread(f0));
+            simulationThreads.add(FabricaHilos.crear(f0, "Fumador-0"));
             FumadorMonitores f1 = new FumadorMonitores(1, PAPEL, monitorMesaMonitores);
-            simulationThreads.add(new Thread(f1));
+            simulationThreads.add(FabricaHilos.crear(f1, "Fumador-1"));
             FumadorMonitores f2 = new FumadorMonitores(2, FOSFOROS, monitorMesaMonitores);
-            simulationThreads.add(new Thread(f2));
+            simulationThreads.add(FabricaHilos.crear(f2, "Fumador-2"));
 
         } else { // Mutex
             Agente agente = new Agente(monitorMesaMutex);
-            simulationThreads.add(new Thread(agente));
+            simulationThreads.add(FabricaHilos.crear(agente, "Agente"));
             Fumador f0 = new Fumador(0, TABACO, monitorMesaMutex);
-            simulationThreads.add(new Thread(f0));
+            simulationThreads.add(FabricaHilos.crear(f0, "Fumador-0"));
             Fumador f1 = new Fumador(1, PAPEL, monitorMesaMutex);
-            simulationThreads.add(new Thread(f1));
+            simulationThreads.add(FabricaHilos.crear(f1, "Fumador-1"));
             Fumador f2 = new Fumador(2, FOSFOROS, monitorMesaMutex);
-            simulationThreads.add(new Thread(f2));
+            simulationThreads.add(FabricaHilos.crear(f2, "Fumador-2"));
         }
 
         // Iniciar todos los hilos
@@ -1,113 +1,370 @@
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Estación de carga sin interfaz, para EstacionSolarMPJ y los benchmarks.
+ * El algoritmo se escoge una vez por nombre en EstacionesCarga (Monitores,
+ * MonitoresSignalAll, LockCondicion, Mutex, Semaforos, Barreras, LockFree);
+ * es la misma implementación que usan los paneles, por omisión sin observador.
+ *
+ * Con estadísticas (constructor con estadisticas=true, como en los
+ * benchmarks) guarda, por separado para críticos y normales, histogramas de
+ * la espera (de la solicitud a la bahía), del tiempo con la bahía tomada y de
+ * cuántos drones esperaban al llegar. Son HistogramaLatencia sin candados: se
+ * pueden leer mientras la simulación corre. Por omisión van apagadas, porque
+ * cada recarga pagaría el contador compartido de la cola y el mapa de
+ * concesiones; sin ellas, ni admisión ni balance, cada llamada va directo a
+ * la EstacionCarga.
+ *
+ * Con un BalanceEnergia (setBalanceEnergia) el dron además reserva energía
+ * antes de pedir bahía y al liberarla se le cobra el tiempo que la tuvo.
+ * setEnergiaSolar sigue siendo el interruptor de sol/sin sol de los paneles.
+ *
+ * Control de admisión (setAdmision): la cola de tryRecarga se llena con
+ * maxEnEspera drones, y para los normales desde maxEnEspera - reservaCriticos,
+ * así en un pico los normales se quedan fuera primero y los críticos siguen
+ * encontrando lugar. Qué pasa con la cola llena lo decide una
+ * PoliticaAdmision: rechazar al que llega o descartar al normal más antiguo.
+ * El rechazo trae una sugerencia de cuándo reintentar. solicitarRecarga no
+ * pasa por la admisión: cuenta en la cola, pero nunca se rechaza ni se
+ * descarta, así que mezclándola con tryRecarga la cola puede pasar de
+ * maxEnEspera.
+ */
 public class GestorEstacion {
-    private int bahias; // B
-    private int maxBahias;
-    private volatile boolean haySol = true; // E > 0
+    private static final int ENERGIA_ACTIVA = 100;
+    private static final int NORMAL = 0;
+    private static final int CRITICO = 1;
+
+    private final EstacionCarga estacion;
 
     // Para estadísticas
-    private int recargasCompletadas = 0;
+    // LongAdder: se incrementa fuera de cualquier candado de la estación
+    private final LongAdder recargasCompletadas = new LongAdder();
+    private final boolean estadisticas;
+    private final HistogramaLatencia[] esperas = { new HistogramaLatencia(), new HistogramaLatencia() };
+    private final HistogramaLatencia[] servicios = { new HistogramaLatencia(), new HistogramaLatencia() };
+    private final HistogramaLatencia[] colas = { new HistogramaLatencia(), new HistogramaLatencia() };
+    private final AtomicInteger enEspera = new AtomicInteger();
+    // Bahía en uso por dron; sólo el hilo del dron escribe la suya
+    private final ConcurrentHashMap<Integer, Concesion> concesiones = new ConcurrentHashMap<>();
+
+    private volatile BalanceEnergia balance;
+
+    // Control de admisión
+    private static final long REINTENTO_POR_OMISION_NS = TimeUnit.MILLISECONDS.toNanos(10);
+    private final int bahias;
+    private volatile int maxEnEspera = Integer.MAX_VALUE;
+    private volatile int reservaCriticos = 0;
+    private volatile PoliticaAdmision admision = PoliticaAdmision.porNombre(PoliticaAdmision.RECHAZAR);
+    private volatile boolean contarEnEspera;
+    private final LongAdder[] rechazos = { new LongAdder(), new LongAdder() };
+    private final LongAdder[] vencidas = { new LongAdder(), new LongAdder() };
+    private final LongAdder descartadas = new LongAdder();
+    // Normales esperando en tryRecarga, del más antiguo al más nuevo (sólo si la política descarta)
+    private final ConcurrentLinkedQueue<Cancelacion> normalesEnEspera = new ConcurrentLinkedQueue<>();
+    // El que ya tenía su bahía no se puede cancelar: se sigue con el siguiente
+    private final PoliticaAdmision.Descartables descartables = () -> {
+        Cancelacion espera;
+        while ((espera = normalesEnEspera.poll()) != null) {
+            if (espera.cancelar()) return true;
+        }
+        return false;
+    };
+
+    /**
+     * Resultado de tryRecarga.
+     */
+    public static final class Resultado {
+        static final Resultado CONCEDIDA = new Resultado(true, false, false, 0);
+
+        private final boolean concedida;
+        private final boolean rechazada;
+        private final boolean descartada;
+        private final long reintentarEnMs;
+
+        private Resultado(boolean concedida, boolean rechazada, boolean descartada, long reintentarEnMs) {
+            this.concedida = concedida;
+            this.rechazada = rechazada;
+            this.descartada = descartada;
+            this.reintentarEnMs = reintentarEnMs;
+        }
+
+        public boolean isConcedida() { return concedida; }
 
-    // --- Sincronización Mutex/Condición (Lo que pide el PDF) ---
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition esperarEnergia = lock.newCondition();
-    private final Condition esperarBahia = lock.newCondition();
-    private final Queue<Integer> colaCriticos = new LinkedList<>();
-    private final Queue<Integer> colaNormales = new LinkedList<>();
+        /** true si no se admitió en la cola; false si esperó y venció el plazo o la descartaron. */
+        public boolean isRechazada() { return rechazada; }
 
-    // --- Sincronización Semáforos ---
-    private final Semaphore semBahias;
-    private final Semaphore semMutex = new Semaphore(1);
-    private final Semaphore semCriticos = new Semaphore(0);
-    private final Semaphore semNormales = new Semaphore(0);
+        /** true si esperaba y la sacaron de la cola para hacer lugar (descartarAntiguo). */
+        public boolean isDescartada() { return descartada; }
 
-    private final String tipoAlgoritmo;
+        /** Sugerencia de espera antes de volver a pedir; 0 si se concedió. */
+        public long getReintentarEnMs() { return reintentarEnMs; }
+    }
+
+    private static final class Concesion {
+        volatile long desde;
+        volatile boolean critico;
+        volatile long reservada; // energía reservada en BalanceEnergia
+    }
 
     public GestorEstacion(int bahias, String tipoAlgoritmo) {
-        this.maxBahias = bahias;
+        this(bahias, tipoAlgoritmo, ObservadorEstacion.NINGUNO);
+    }
+
+    public GestorEstacion(int bahias, String tipoAlgoritmo, ObservadorEstacion observador) {
+        this(bahias, tipoAlgoritmo, observador, false);
+    }
+
+    public GestorEstacion(int bahias, String tipoAlgoritmo, ObservadorEstacion observador, boolean estadisticas) {
+        this.estacion = EstacionesCarga.crear(tipoAlgoritmo, bahias, observador, null);
+        this.estadisticas = estadisticas;
         this.bahias = bahias;
-        this.tipoAlgoritmo = tipoAlgoritmo;
-        this.semBahias = new Semaphore(bahias);
+        this.contarEnEspera = estadisticas;
+    }
+
+    /**
+     * Usa un balance de energía desde ahora; debe fijarse antes de que los
+     * drones empiecen a pedir bahía.
+     */
+    public void setBalanceEnergia(BalanceEnergia balance) {
+        this.balance = balance;
     }
 
+    /**
+     * Acota la cola para tryRecarga: como mucho maxEnEspera drones esperando, y
+     * los últimos reservaCriticos lugares sólo para críticos. Debe fijarse
+     * antes de que los drones empiecen a pedir bahía.
+     */
+    public void setAdmision(int maxEnEspera, int reservaCriticos) {
+        setAdmision(maxEnEspera, reservaCriticos, PoliticaAdmision.RECHAZAR);
+    }
+
+    /**
+     * Como setAdmision, con la política por nombre (PoliticaAdmision.RECHAZAR
+     * o DESCARTAR_ANTIGUO) para cuando la cola está llena.
+     */
+    public void setAdmision(int maxEnEspera, int reservaCriticos, String politica) {
+        if (maxEnEspera < 1 || reservaCriticos < 0 || reservaCriticos > maxEnEspera) {
+            throw new IllegalArgumentException("Admisión inválida: maxEnEspera=" + maxEnEspera
+                    + " reservaCriticos=" + reservaCriticos);
+        }
+        this.admision = PoliticaAdmision.porNombre(politica);
+        this.maxEnEspera = maxEnEspera;
+        this.reservaCriticos = reservaCriticos;
+        this.contarEnEspera = true;
+    }
+
+    /**
+     * Espera bahía sin plazo. No pasa por la admisión: cuenta en getEnEspera
+     * (con estadísticas o admisión) pero nunca se rechaza ni se descarta.
+     */
     public void solicitarRecarga(int idDron, boolean critico) throws InterruptedException {
-        if (tipoAlgoritmo.equals("Mutex") || tipoAlgoritmo.equals("Monitores")) {
-            usarMonitor(idDron, critico);
-        } else {
-            usarSemaforo(idDron, critico);
+        if (!contarEnEspera && balance == null) {
+            estacion.solicitarRecarga(idDron, critico);
+            return;
         }
+        boolean contado = contarEnEspera;
+        int cola = contado ? enEspera.getAndIncrement() : 0;
+        recargar(idDron, critico, EstacionCarga.SIN_PLAZO, cola, contado, System.nanoTime(), null);
     }
 
-    public void liberarBahia() {
-        if (tipoAlgoritmo.equals("Mutex") || tipoAlgoritmo.equals("Monitores")) {
-            liberarMonitor();
-        } else {
-            liberarSemaforo();
+    /**
+     * Como solicitarRecarga, pero devuelve false si otro hilo cancela la
+     * espera con cancelacion. No pasa por la admisión: es para
+     * ClusterEstaciones, que pasa el dron cancelado a otra estación. llegada
+     * es el nanoTime de su primera solicitud, así la espera registrada
+     * incluye la de la estación anterior.
+     */
+    boolean intentarRecarga(int idDron, boolean critico, Cancelacion cancelacion, long llegada)
+            throws InterruptedException {
+        if (!contarEnEspera && balance == null) {
+            return estacion.intentarRecarga(idDron, critico, EstacionCarga.SIN_PLAZO, cancelacion);
         }
+        boolean contado = contarEnEspera;
+        int cola = contado ? enEspera.getAndIncrement() : 0;
+        return recargar(idDron, critico, EstacionCarga.SIN_PLAZO, cola, contado, llegada, cancelacion);
     }
 
-    // --- Lógica del PDF (Adaptada a Java real) ---
-    private void usarMonitor(int id, boolean critico) throws InterruptedException {
-        lock.lock();
-        try {
-            if (critico) colaCriticos.add(id);
-            else colaNormales.add(id);
-
-            // while (!modoActivo || bahias == 0 || condiciones de prioridad...)
-            while (!haySol || bahias == 0 ||
-                   (critico && colaCriticos.peek() != id) ||
-                   (!critico && (!colaCriticos.isEmpty() || colaNormales.peek() != id))) 
-            {
-                esperarBahia.await();
+    /**
+     * Pide bahía sin esperar más de timeout. Si la cola está llena para la
+     * clase del dron, la PoliticaAdmision decide si se rechaza de inmediato o
+     * si sale un normal antiguo para que entre. Si espera y vence el plazo, o
+     * lo descartan, sale de la cola. En todos los casos el Resultado trae
+     * cuándo reintentar. El descarte no interrumpe el hilo del descartado: lo
+     * cancela en la estación (Cancelacion).
+     */
+    public Resultado tryRecarga(int idDron, boolean critico, long timeout, TimeUnit unidad)
+            throws InterruptedException {
+        int clase = critico ? CRITICO : NORMAL;
+        int limite = critico ? maxEnEspera : maxEnEspera - reservaCriticos;
+        PoliticaAdmision politica = admision;
+        int cola;
+        do {
+            cola = enEspera.get();
+            if (cola >= limite) {
+                // El descartado ya no cuenta: el que llega toma su lugar, así la cola no pasa del límite
+                if (politica.hacerLugar(critico, descartables)) break;
+                rechazos[clase].increment();
+                return new Resultado(false, true, false, reintentarEnMs(cola));
             }
+        } while (!enEspera.compareAndSet(cola, cola + 1));
 
-            bahias--;
-            if (critico) colaCriticos.poll();
-            else colaNormales.poll();
+        Cancelacion espera = null;
+        if (!critico && politica.descarta()) {
+            espera = new Cancelacion();
+            normalesEnEspera.add(espera);
+        }
+        boolean concedida;
+        try {
+            concedida = recargar(idDron, critico, unidad.toNanos(timeout), cola, false, System.nanoTime(), espera);
         } finally {
-            lock.unlock();
+            if (espera != null) normalesEnEspera.remove(espera);
+            // Al descartado le quitaron su lugar al cancelarlo
+            if (espera == null || !espera.cancelada()) enEspera.decrementAndGet();
+        }
+        if (concedida) return Resultado.CONCEDIDA;
+        if (espera != null && espera.cancelada()) {
+            descartadas.increment();
+            return new Resultado(false, false, true, reintentarEnMs(enEspera.get()));
         }
+        vencidas[clase].increment();
+        return new Resultado(false, false, false, reintentarEnMs(enEspera.get()));
     }
 
-    private void liberarMonitor() {
-        lock.lock();
+    // Si contado, enEspera ya incluye a este dron y aquí se descuenta.
+    // La espera registrada se mide desde llegada. cancelacion puede ser null.
+    private boolean recargar(int idDron, boolean critico, long plazoNanos, int colaAlLlegar, boolean contado,
+                             long llegada, Cancelacion cancelacion) throws InterruptedException {
+        BalanceEnergia energia = balance;
+        int clase = critico ? CRITICO : NORMAL;
+        if (estadisticas) colas[clase].registrar(colaAlLlegar);
+        long inicio = System.nanoTime();
+        long reservada = 0;
         try {
-            bahias++;
-            recargasCompletadas++;
-            esperarBahia.signalAll(); // Avisar a todos para que reevalúen condiciones
+            if (energia != null) {
+                reservada = energia.reservar(critico, plazoNanos);
+                if (reservada < 0) return false;
+                if (plazoNanos != EstacionCarga.SIN_PLAZO) {
+                    plazoNanos = Math.max(0, plazoNanos - (System.nanoTime() - inicio));
+                }
+            }
+            boolean obtenida;
+            try {
+                obtenida = estacion.intentarRecarga(idDron, critico, plazoNanos, cancelacion);
+            } catch (InterruptedException e) {
+                if (energia != null) energia.devolver(reservada);
+                throw e;
+            }
+            if (!obtenida) {
+                if (energia != null) energia.devolver(reservada);
+                return false;
+            }
         } finally {
-            lock.unlock();
+            if (contado) enEspera.decrementAndGet();
         }
+        long ahora = System.nanoTime();
+        if (estadisticas) esperas[clase].registrar(ahora - llegada);
+        Concesion concesion = concesiones.computeIfAbsent(idDron, id -> new Concesion());
+        concesion.critico = critico;
+        concesion.reservada = reservada;
+        concesion.desde = ahora;
+        return true;
     }
 
-    // Lógica Alternativa con Semáforos (para comparar rendimiento)
-    private void usarSemaforo(int id, boolean critico) throws InterruptedException {
-        // Implementación simplificada para benchmarking
-        semBahias.acquire();
-        semMutex.acquire();
-        // Sección crítica simulada
-        semMutex.release();
+    // Tandas de bahías que faltan para atender a los que esperan, por el servicio medio
+    private long reintentarEnMs(int enCola) {
+        long servicioNs = REINTENTO_POR_OMISION_NS;
+        long n = servicios[CRITICO].getCantidad() + servicios[NORMAL].getCantidad();
+        if (n > 0) {
+            servicioNs = (long) ((servicios[CRITICO].getMedia() * servicios[CRITICO].getCantidad()
+                    + servicios[NORMAL].getMedia() * servicios[NORMAL].getCantidad()) / n);
+        }
+        long tandas = enCola / bahias + 1;
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(tandas * servicioNs));
     }
 
-    private void liberarSemaforo() {
-        semBahias.release();
-        recargasCompletadas++;
+    public void liberarBahia(int idDron) {
+        BalanceEnergia energia = balance;
+        // Con admisión también se mide el servicio: de él sale la sugerencia de reintento
+        if (contarEnEspera || energia != null) {
+            Concesion concesion = concesiones.get(idDron);
+            if (concesion != null && concesion.desde != 0) {
+                long enBahia = System.nanoTime() - concesion.desde;
+                if (contarEnEspera) servicios[concesion.critico ? CRITICO : NORMAL].registrar(enBahia);
+                if (energia != null) energia.cobrar(concesion.reservada, enBahia);
+                concesion.desde = 0;
+            }
+        }
+        estacion.liberarBahia(idDron);
+        recargasCompletadas.increment();
     }
 
     // Simulación del Sol (Administrador Energético)
     public void setEnergiaSolar(boolean activo) {
-        lock.lock();
-        try {
-            this.haySol = activo;
-            if (haySol) esperarEnergia.signalAll();
-        } finally {
-            lock.unlock();
-        }
+        estacion.actualizarEnergia(activo ? ENERGIA_ACTIVA : 0);
+    }
+
+    public int getRecargas() { return recargasCompletadas.intValue(); }
+
+    /**
+     * Número de veces que un dron despertó de await en los modos con monitor.
+     * Dividido entre getRecargas() da los despertares por bahía liberada.
+     */
+    public long getDespertares() {
+        return estacion.getDespertares();
+    }
+
+    /** Espera en ns desde solicitarRecarga hasta tener la bahía (con la energía). */
+    public HistogramaLatencia getEspera(boolean critico) {
+        return esperas[critico ? CRITICO : NORMAL];
+    }
+
+    /** Tiempo en ns con la bahía tomada, hasta liberarBahia. */
+    public HistogramaLatencia getServicio(boolean critico) {
+        return servicios[critico ? CRITICO : NORMAL];
     }
 
-    public int getRecargas() { return recargasCompletadas; }
+    /** Drones esperando ahora (de ambas clases); sólo se cuenta con estadísticas o admisión. */
+    public int getEnEspera() { return enEspera.get(); }
+
+    /** Solicitudes de tryRecarga que no se admitieron en la cola. */
+    public long getRechazos(boolean critico) { return rechazos[critico ? CRITICO : NORMAL].sum(); }
+
+    /** Solicitudes de tryRecarga que esperaron y vencieron su plazo. */
+    public long getVencidas(boolean critico) { return vencidas[critico ? CRITICO : NORMAL].sum(); }
+
+    /** Normales que esperaban en tryRecarga y se descartaron para hacer lugar. */
+    public long getDescartadas() { return descartadas.sum(); }
+
+    /** Drones esperando bahía (de ambas clases) cuando llegó cada solicitud. */
+    public HistogramaLatencia getColaAlLlegar(boolean critico) {
+        return colas[critico ? CRITICO : NORMAL];
+    }
+
+    /**
+     * Una línea por clase con espera, servicio y cola al llegar.
+     */
+    public String resumenEstadisticas() {
+        return resumen(esperas, servicios, colas);
+    }
+
+    // Arreglos indexados por NORMAL/CRITICO; también lo usa ClusterEstaciones
+    static String resumen(HistogramaLatencia[] esperas, HistogramaLatencia[] servicios,
+                          HistogramaLatencia[] colas) {
+        StringBuilder sb = new StringBuilder();
+        for (int clase = CRITICO; clase >= NORMAL; clase--) {
+            HistogramaLatencia cola = colas[clase];
+            sb.append(clase == CRITICO ? "criticos" : "normales")
+              .append(" espera[").append(esperas[clase].resumen())
+              .append("] servicio[").append(servicios[clase].resumen())
+              .append(String.format(Locale.ROOT, "] cola[media=%.2f p99=%d max=%d]",
+                      cola.getMedia(), cola.percentil(99), cola.getMaximo()));
+            if (clase == CRITICO) sb.append('\n');
+        }
+        return sb.toString();
+    }
 }
@@ -9,8 +9,18 @@ import org.jfree.chart.renderer.xy.XYStepRenderer;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.axis.NumberTickUnit;
 import org.jfree.chart.labels.StandardXYToolTipGenerator;
+import org.jfree.data.Range;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
 
 public class GraficasPanel extends JPanel {
     private XYSeriesCollection dataset;
@@ -21,6 +31,74 @@ public class GraficasPanel extends JPanel {
     private Thread generadorPorDefecto;
     private JLabel statusLabel;
     private int[] contadoresPuntos = new int[5]; // Contadores para cada serie
+    private String[] nombresCortos = {"Mutex", "Semáforos", "Monitores", "Var. Cond", "Barreras"};
+    private static final String[] SERIES_POR_OMISION = {
+        "Núcleo 1 (Mutex)", "Núcleo 2 (Semáforos)", "Núcleo 3 (Monitores)", "Núcleo 4 (Var. Cond)", "Núcleo 5 (Barreras)"
+    };
+    // Mutex, Semáforos, Monitores, Variables de Condición, Barreras y, si hay más series, el resto
+    private static final Color[] COLORES = {
+        Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW, Color.MAGENTA,
+        Color.ORANGE, Color.CYAN, Color.PINK, Color.GRAY, Color.BLACK
+    };
+
+    // Índice de cada serie por nombre (se reconstruye al cambiar las series)
+    private final Map<String, Integer> indiceSeries = new HashMap<>();
+
+    // Los puntos se agregan sin notificar; una vez por cuadro se avisa a las
+    // series modificadas, se ajustan los ejes y se actualiza el estado (EDT).
+    private static final int MS_POR_CUADRO = 1000 / 30;
+    private final BitSet seriesModificadas = new BitSet();
+    private double maxXPendiente = Double.NEGATIVE_INFINITY;
+    private final Timer temporizadorCuadro;
+
+    // Cada serie guarda sus puntos crudos en una SerieVentana acotada
+    // (-Dgraficas.retencion puntos y, si se da, -Dgraficas.ventana unidades de X);
+    // la XYSeries sólo tiene los puntos reducidos del rango visible.
+    // Con -Dgraficas.volcado=archivo.csv los puntos que salen de la ventana se
+    // escriben ahí para conservar los datos crudos.
+    private static final int RETENCION = Integer.getInteger("graficas.retencion", 50_000);
+    private static final double VENTANA_X = Double.parseDouble(System.getProperty("graficas.ventana", "0"));
+    private static final int ANCHO_MAXIMO = 4000;
+    private SerieVentana[] ventanas = new SerieVentana[0];
+    private BufferedWriter volcado;
+
+    /**
+     * Lote de puntos para addPoints. La serie va por índice (ver indiceSerie).
+     */
+    public static class LotePuntos {
+        private int[] series;
+        private double[] xs;
+        private double[] ys;
+        private int cantidad;
+
+        public LotePuntos(int capacidadInicial) {
+            int cap = Math.max(1, capacidadInicial);
+            series = new int[cap];
+            xs = new double[cap];
+            ys = new double[cap];
+        }
+
+        public void agregar(int serie, double x, double y) {
+            if (cantidad == series.length) {
+                int cap = cantidad * 2;
+                series = Arrays.copyOf(series, cap);
+                xs = Arrays.copyOf(xs, cap);
+                ys = Arrays.copyOf(ys, cap);
+            }
+            series[cantidad] = serie;
+            xs[cantidad] = x;
+            ys[cantidad] = y;
+            cantidad++;
+        }
+
+        public int getCantidad() {
+            return cantidad;
+        }
+
+        public void limpiar() {
+            cantidad = 0;
+        }
+    }
 
     public GraficasPanel() {
         setLayout(new BorderLayout());
@@ -70,6 +148,14 @@ public class GraficasPanel extends JPanel {
         // Rango inicial del eje X (Nivel Construido)
         chart.getXYPlot().getDomainAxis().setRange(0, 1);
 
+        temporizadorCuadro = new Timer(MS_POR_CUADRO, e -> publicarCambios());
+        temporizadorCuadro.setRepeats(false);
+        reconstruirIndice();
+        String rutaVolcado = System.getProperty("graficas.volcado");
+        if (rutaVolcado != null && !rutaVolcado.isEmpty()) {
+            setVolcado(rutaVolcado);
+        }
+
         iniciarGeneradorPorDefecto();
     }
 
@@ -82,8 +168,10 @@ public class GraficasPanel extends JPanel {
                     final int currentX = x++;
                     final double currentY = 50 + 40 * Math.sin(Math.toRadians(currentX * 5));
                     SwingUtilities.invokeLater(() -> {
-                        dataset.getSeries(0).add(currentX, currentY);
-                        ajustarRangosYTamano(currentX);
+                        if (dataset.getSeriesCount() > 0) {
+                            agregarSinNotificar(0, currentX, currentY);
+                            programarCuadro();
+                        }
                     });
                     Thread.sleep(100);
                 }
@@ -109,8 +197,9 @@ public class GraficasPanel extends JPanel {
             }
         } else {
             double upper = currentX <= 0 ? 1 : currentX;
-            chart.getXYPlot().getDomainAxis().setRange(0, upper);
-            int newWidth = Math.max(getPreferredSize().width, (int) currentX);
+            double lower = Math.min(obtenerMinX(), upper - 1);
+            chart.getXYPlot().getDomainAxis().setRange(lower, upper);
+            int newWidth = Math.min(ANCHO_MAXIMO, Math.max(getPreferredSize().width, (int) currentX));
             setPreferredSize(new Dimension(newWidth, PANEL_HEIGHT));
         }
         revalidate();
@@ -127,49 +216,61 @@ public class GraficasPanel extends JPanel {
             double lower = Math.max(0, upper - 50);
             chart.getXYPlot().getDomainAxis().setRange(lower, upper);
         } else {
-            int newWidth = Math.max(getPreferredSize().width, (int) maxX);
+            int newWidth = Math.min(ANCHO_MAXIMO, Math.max(getPreferredSize().width, (int) maxX));
             setPreferredSize(new Dimension(newWidth, PANEL_HEIGHT));
             double upper = maxX <= 0 ? 1 : maxX;
-            chart.getXYPlot().getDomainAxis().setRange(0, upper);
+            chart.getXYPlot().getDomainAxis().setRange(Math.min(obtenerMinX(), upper - 1), upper);
         }
+        // Cambió el rango visible: todas las series se vuelven a reducir
+        seriesModificadas.set(0, ventanas.length);
+        programarCuadro();
         revalidate();
     }
 
     private double obtenerMaxX() {
         double maxX = 0;
-        for (int i = 0; i < dataset.getSeriesCount(); i++) {
-            maxX = Math.max(maxX, dataset.getSeries(i).getMaxX());
+        for (SerieVentana ventana : ventanas) {
+            maxX = Math.max(maxX, ventana.getMaxX());
         }
         return maxX;
     }
 
+    // Primer X conservado; 0 mientras ninguna serie haya descartado puntos
+    private double obtenerMinX() {
+        double minX = 0;
+        for (SerieVentana ventana : ventanas) {
+            if (ventana.getDesalojados() > 0) {
+                minX = Math.max(minX, ventana.getMinX());
+            }
+        }
+        return minX;
+    }
+
     public synchronized void resetSeries(String titulo, String... nombres) {
         detenerGeneradorPorDefecto();
+        for (SerieVentana ventana : ventanas) {
+            ventana.volcarRetenidos();
+        }
         dataset.removeAllSeries();
         
-        // Crear las 5 series para los algoritmos de sincronización
-        XYSeries mutexSeries = new XYSeries("Núcleo 1 (Mutex)", false); // setAutoSort(false)
-        XYSeries semaforoSeries = new XYSeries("Núcleo 2 (Semáforos)", false);
-        XYSeries monitorSeries = new XYSeries("Núcleo 3 (Monitores)", false);
-        XYSeries condicionSeries = new XYSeries("Núcleo 4 (Var. Cond)", false);
-        XYSeries barreraSeries = new XYSeries("Núcleo 5 (Barreras)", false);
-        
-        dataset.addSeries(mutexSeries);
-        dataset.addSeries(semaforoSeries);
-        dataset.addSeries(monitorSeries);
-        dataset.addSeries(condicionSeries);
-        dataset.addSeries(barreraSeries);
+        // Una serie por nombre; sin nombres, las 5 de los algoritmos de sincronización
+        if (nombres.length == 0) {
+            nombres = SERIES_POR_OMISION;
+        }
+        nombresCortos = new String[nombres.length];
+        for (int i = 0; i < nombres.length; i++) {
+            dataset.addSeries(new XYSeries(nombres[i], false)); // setAutoSort(false)
+            nombresCortos[i] = nombreCorto(nombres[i]);
+        }
+        contadoresPuntos = new int[nombres.length];
+        reconstruirIndice();
         
         // Configurar colores para cada línea
         XYPlot plot = chart.getXYPlot();
         XYStepRenderer renderer = (XYStepRenderer) plot.getRenderer();
-        
-        // Colores específicos para cada algoritmo
-        renderer.setSeriesPaint(0, Color.RED);      // Mutex
-        renderer.setSeriesPaint(1, Color.BLUE);     // Semáforos
-        renderer.setSeriesPaint(2, Color.GREEN);    // Monitores
-        renderer.setSeriesPaint(3, Color.YELLOW);   // Variables de Condición
-        renderer.setSeriesPaint(4, Color.MAGENTA);  // Barreras
+        for (int i = 0; i < nombres.length; i++) {
+            renderer.setSeriesPaint(i, COLORES[i % COLORES.length]);
+        }
         
         chart.setTitle(titulo);
         chart.getXYPlot().setDataset(dataset);
@@ -182,62 +283,134 @@ public class GraficasPanel extends JPanel {
         setPreferredSize(new Dimension(getPreferredSize().width, PANEL_HEIGHT));
         revalidate();
         
-        // Reiniciar contadores
-        for (int i = 0; i < contadoresPuntos.length; i++) {
-            contadoresPuntos[i] = 0;
-        }
-        
         // Actualizar estado
         statusLabel.setText("Estado: Gráfico reiniciado - Esperando datos...");
     }
 
-    private XYSeries buscarSerie(String nombre) {
+    // "Núcleo 1 (Mutex)" -> "Mutex"; sin paréntesis, el nombre completo
+    private static String nombreCorto(String nombre) {
+        int abre = nombre.lastIndexOf('(');
+        int cierra = nombre.lastIndexOf(')');
+        return abre >= 0 && cierra > abre ? nombre.substring(abre + 1, cierra) : nombre;
+    }
+
+    private void reconstruirIndice() {
+        indiceSeries.clear();
+        ventanas = new SerieVentana[dataset.getSeriesCount()];
         for (int i = 0; i < dataset.getSeriesCount(); i++) {
-            XYSeries s = dataset.getSeries(i);
-            if (String.valueOf(s.getKey()).equals(nombre)) return s;
+            indiceSeries.put(String.valueOf(dataset.getSeries(i).getKey()), i);
+            ventanas[i] = new SerieVentana(i, RETENCION, VENTANA_X);
+            if (volcado != null) {
+                ventanas[i].setVolcado(this::escribirVolcado);
+            }
         }
-        return null;
+        seriesModificadas.clear();
+        maxXPendiente = Double.NEGATIVE_INFINITY;
     }
-    
-    private int getSerieIndex(String nombre) {
-        String[] nombresSeries = {"Núcleo 1 (Mutex)", "Núcleo 2 (Semáforos)", "Núcleo 3 (Monitores)", "Núcleo 4 (Var. Cond)", "Núcleo 5 (Barreras)"};
-        for (int i = 0; i < nombresSeries.length; i++) {
-            if (nombresSeries[i].equals(nombre)) return i;
-        }
-        return -1;
+
+    /**
+     * Índice de la serie para usar en LotePuntos, o -1 si no existe.
+     */
+    public int indiceSerie(String nombre) {
+        Integer i = indiceSeries.get(nombre);
+        return i == null ? -1 : i;
     }
 
     public void addPoint(String serie, double x, double y) {
-        SwingUtilities.invokeLater(() -> {
-            XYSeries s = buscarSerie(serie);
-            if (s != null) {
-                s.add(x, y);
-                ajustarRangosYTamano(x);
-                
-                // Incrementar contador correspondiente
-                int index = getSerieIndex(serie);
-                if (index >= 0 && index < contadoresPuntos.length) {
-                    contadoresPuntos[index]++;
-                }
-                
-                String[] nombresSeries = {"Mutex", "Semáforos", "Monitores", "Var. Cond", "Barreras"};
-                StringBuilder resumen = new StringBuilder("<html>Puntos por serie:<br/>");
-                for (int i = 0; i < contadoresPuntos.length; i++) {
-                    resumen.append(nombresSeries[i]).append(": ").append(contadoresPuntos[i]).append("<br/>");
-                }
-                resumen.append("</html>");
-                statusLabel.setText(resumen.toString());
-            } else {
-                statusLabel.setText("<html>Estado:<br/>ERROR - Serie no encontrada: " + serie + "</html>");
+        SwingUtilities.invokeLater(() -> agregarPunto(serie, x, y));
+    }
+
+    /**
+     * Igual que addPoint pero sin invokeLater: debe llamarse desde el EDT.
+     */
+    public void agregarPunto(String serie, double x, double y) {
+        int indice = indiceSerie(serie);
+        if (indice < 0) {
+            statusLabel.setText("<html>Estado:<br/>ERROR - Serie no encontrada: " + serie + "</html>");
+            return;
+        }
+        agregarSinNotificar(indice, x, y);
+        programarCuadro();
+    }
+
+    /**
+     * Agrega todos los puntos del lote y notifica una sola vez por serie en el
+     * siguiente cuadro. Desde el EDT se aplica de inmediato y el lote puede
+     * reutilizarse al regresar; desde otro hilo se encola y el lote ya no debe
+     * modificarse.
+     */
+    public void addPoints(LotePuntos lote) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> addPoints(lote));
+            return;
+        }
+        int numSeries = dataset.getSeriesCount();
+        for (int i = 0; i < lote.cantidad; i++) {
+            int indice = lote.series[i];
+            if (indice >= 0 && indice < numSeries) {
+                agregarSinNotificar(indice, lote.xs[i], lote.ys[i]);
             }
-        });
+        }
+        programarCuadro();
+    }
+
+    private void agregarSinNotificar(int indice, double x, double y) {
+        ventanas[indice].agregar(x, y);
+        seriesModificadas.set(indice);
+        maxXPendiente = Math.max(maxXPendiente, x);
+        if (indice < contadoresPuntos.length) {
+            contadoresPuntos[indice]++;
+        }
+    }
+
+    private void programarCuadro() {
+        if (!temporizadorCuadro.isRunning()) {
+            temporizadorCuadro.start();
+        }
+    }
+
+    // Un cuadro: un evento de cambio por serie modificada y un solo ajuste de ejes
+    private void publicarCambios() {
+        if (seriesModificadas.isEmpty()) return;
+        if (maxXPendiente > Double.NEGATIVE_INFINITY) {
+            ajustarRangosYTamano(maxXPendiente);
+            maxXPendiente = Double.NEGATIVE_INFINITY;
+        }
+        // Una cubeta por pixel del ancho dibujado
+        Range rango = chart.getXYPlot().getDomainAxis().getRange();
+        int ancho = chartPanel.getWidth() > 0 ? chartPanel.getWidth() : getPreferredSize().width;
+        int cubetas = Math.max(1, Math.min(ANCHO_MAXIMO, ancho));
+        for (int i = seriesModificadas.nextSetBit(0); i >= 0; i = seriesModificadas.nextSetBit(i + 1)) {
+            if (i < ventanas.length) {
+                ventanas[i].reducir(rango.getLowerBound(), rango.getUpperBound(), cubetas, dataset.getSeries(i));
+            }
+        }
+        seriesModificadas.clear();
+        if (volcado != null) {
+            try {
+                volcado.flush();
+            } catch (IOException e) {
+                fallaVolcado(e);
+            }
+        }
+
+        StringBuilder resumen = new StringBuilder("<html>Puntos por serie:<br/>");
+        for (int i = 0; i < contadoresPuntos.length; i++) {
+            resumen.append(nombresCortos[i]).append(": ").append(contadoresPuntos[i]).append("<br/>");
+        }
+        resumen.append("</html>");
+        statusLabel.setText(resumen.toString());
     }
 
     public void clear() {
         SwingUtilities.invokeLater(() -> {
             for (int i = 0; i < dataset.getSeriesCount(); i++) {
+                ventanas[i].volcarRetenidos();
+                ventanas[i].limpiar();
                 dataset.getSeries(i).clear();
             }
+            seriesModificadas.clear();
+            maxXPendiente = Double.NEGATIVE_INFINITY;
             chart.getXYPlot().getDomainAxis().setRange(0, 1);
             revalidate();
             
@@ -248,4 +421,68 @@ public class GraficasPanel extends JPanel {
             statusLabel.setText("Estado: Datos limpiados");
         });
     }
+
+    /**
+     * Empieza a escribir en un CSV (serie,x,y) los puntos que salen de la
+     * ventana de retención. Debe llamarse desde el EDT.
+     */
+    public void setVolcado(String ruta) {
+        cerrarVolcado();
+        try {
+            volcado = Files.newBufferedWriter(Paths.get(ruta), StandardCharsets.UTF_8);
+            volcado.write("serie,x,y");
+            volcado.newLine();
+        } catch (IOException e) {
+            fallaVolcado(e);
+            return;
+        }
+        for (SerieVentana ventana : ventanas) {
+            ventana.setVolcado(this::escribirVolcado);
+        }
+    }
+
+    /**
+     * Escribe también los puntos que siguen en pantalla y cierra el volcado.
+     * Debe llamarse desde el EDT.
+     */
+    public void cerrarVolcado() {
+        if (volcado == null) return;
+        for (SerieVentana ventana : ventanas) {
+            ventana.volcarRetenidos();
+            ventana.setVolcado(null);
+        }
+        try {
+            if (volcado != null) volcado.close();
+        } catch (IOException e) {
+            System.err.println("No se pudo cerrar el volcado de la gráfica: " + e.getMessage());
+        }
+        volcado = null;
+    }
+
+    private void escribirVolcado(int serie, double x, double y) {
+        if (volcado == null) return;
+        try {
+            volcado.write(String.valueOf(dataset.getSeries(serie).getKey()));
+            volcado.write(',');
+            volcado.write(Double.toString(x));
+            volcado.write(',');
+            volcado.write(Double.toString(y));
+            volcado.newLine();
+        } catch (IOException e) {
+            fallaVolcado(e);
+        }
+    }
+
+    // Sin disco no se detiene la gráfica: se avisa y se deja de volcar
+    private void fallaVolcado(IOException e) {
+        System.err.println("No se pudo escribir el volcado de la gráfica: " + e.getMessage());
+        for (SerieVentana ventana : ventanas) {
+            ventana.setVolcado(null);
+        }
+        try {
+            if (volcado != null) volcado.close();
+        } catch (IOException ignored) {
+        }
+        volcado = null;
+    }
 }
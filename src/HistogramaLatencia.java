@@ -0,0 +1,151 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias sin bloqueos (estilo HdrHistogram).
+ * Cada potencia de dos se divide en 16 sub-cubetas lineales, lo que da
+ * una precisión relativa de ~6% con un arreglo fijo de 1024 contadores.
+ * Se puede registrar desde muchos hilos y leer mientras se registra. La
+ * cantidad y la suma son LongAdder, porque todos los hilos las tocan en cada
+ * registro; las cuentas se reparten solas entre las cubetas.
+ */
+public class HistogramaLatencia {
+    private static final int BITS_SUB = 5;                      // 2^5 = 32 valores exactos
+    private static final int MITAD_SUB = 1 << (BITS_SUB - 1);   // 16 sub-cubetas por potencia
+    private static final int NUM_CUBETAS = 64 * MITAD_SUB;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(NUM_CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra un valor (normalmente nanosegundos). Los negativos cuentan como 0.
+     */
+    public void registrar(long valor) {
+        if (valor < 0) valor = 0;
+        cuentas.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        long actual;
+        while (valor > (actual = maximo.get())) {
+            if (maximo.compareAndSet(actual, valor)) break;
+        }
+    }
+
+    public long getCantidad() { return cantidad.sum(); }
+
+    public long getMaximo() { return maximo.get(); }
+
+    public double getMedia() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Valor por debajo del cual cae el porcentaje p (0-100) de las muestras.
+     * Devuelve el límite superior de la cubeta, acotado por el máximo visto.
+     */
+    public long percentil(double p) {
+        long n = cantidad.sum();
+        if (n == 0) return 0;
+        long objetivo = Math.max(1, (long) Math.ceil(n * p / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            acumulado += cuentas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Suma las muestras de otro histograma en éste (para agregar por hilo o por rango).
+     */
+    public void sumar(HistogramaLatencia otro) {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            long c = otro.cuentas.get(i);
+            if (c != 0) cuentas.addAndGet(i, c);
+        }
+        cantidad.add(otro.cantidad.sum());
+        suma.add(otro.suma.sum());
+        long m = otro.maximo.get();
+        long actual;
+        while (m > (actual = maximo.get())) {
+            if (maximo.compareAndSet(actual, m)) break;
+        }
+    }
+
+    /**
+     * Cuántos long ocupa el histograma en exportar: cantidad, suma y las cuentas.
+     * El máximo no va incluido porque se combina con MAX y no con SUM.
+     */
+    public static final int TAM_EXPORTADO = 2 + NUM_CUBETAS;
+
+    /**
+     * Copia el histograma a un arreglo plano, por ejemplo para sumarlo entre
+     * procesos con una reducción MPI.
+     */
+    public void exportar(long[] destino, int desde) {
+        destino[desde] = cantidad.sum();
+        destino[desde + 1] = suma.sum();
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            destino[desde + 2 + i] = cuentas.get(i);
+        }
+    }
+
+    /**
+     * Suma en éste un histograma exportado con exportar, con su máximo aparte.
+     */
+    public void sumarExportado(long[] origen, int desde, long maximoOrigen) {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            long c = origen[desde + 2 + i];
+            if (c != 0) cuentas.addAndGet(i, c);
+        }
+        cantidad.add(origen[desde]);
+        suma.add(origen[desde + 1]);
+        long actual;
+        while (maximoOrigen > (actual = maximo.get())) {
+            if (maximo.compareAndSet(actual, maximoOrigen)) break;
+        }
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            cuentas.set(i, 0);
+        }
+        cantidad.reset();
+        suma.reset();
+        maximo.set(0);
+    }
+
+    /**
+     * Resumen legible con los valores convertidos de ns a microsegundos.
+     */
+    public String resumen() {
+        return String.format(Locale.ROOT, "n=%d media=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                getCantidad(), getMedia() / 1_000.0, percentil(50) / 1_000.0,
+                percentil(99) / 1_000.0, percentil(99.9) / 1_000.0, getMaximo() / 1_000.0);
+    }
+
+    private static int indice(long valor) {
+        if (valor < (1L << BITS_SUB)) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUB + 1;
+        return desplazamiento * MITAD_SUB + (int) (valor >>> desplazamiento);
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < MITAD_SUB) {
+            return indice;
+        }
+        int desplazamiento = indice / MITAD_SUB - 1;
+        long mantisa = indice - (long) desplazamiento * MITAD_SUB;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Lo que una EstacionCarga avisa hacia afuera (paneles, grafo). Los avisos
+ * llevan sólo datos; armar textos o redibujar es cosa del observador.
+ *
+ * Las estaciones avisan después de soltar sus candados, así el trabajo del
+ * observador no alarga las secciones críticas. Por lo mismo, avisos de hilos
+ * distintos pueden llegar en otro orden que el de los cambios: el número de
+ * bahías de un aviso es el que vio ese hilo, no necesariamente el último.
+ */
+public interface ObservadorEstacion {
+
+    /**
+     * Observador que no hace nada, para correr sin interfaz.
+     */
+    ObservadorEstacion NINGUNO = new ObservadorEstacion() {
+    };
+
+    default void solicitud(int idDron, boolean critico) {
+    }
+
+    default void asignada(int idDron) {
+    }
+
+    default void liberada(int idDron) {
+    }
+
+    /**
+     * Un grupo de la barrera entró completo a las bahías.
+     */
+    default void grupoFormado(int tamano) {
+    }
+
+    default void bahiasDisponibles(int bahias) {
+    }
+
+    default void energia(int energia, boolean activo) {
+    }
+}
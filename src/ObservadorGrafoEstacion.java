@@ -0,0 +1,57 @@
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Observador de los paneles de la estación solar: pasa los avisos al grafo,
+ * en el nodo dado, y el estado de bahías y energía al panel.
+ */
+final class ObservadorGrafoEstacion implements ObservadorEstacion {
+    private final PanelGrafoDinamico panelGrafo;
+    private final String nodo;
+    private final IntConsumer bahias;
+    private final IntConsumer energia;
+    private final Consumer<Boolean> modoActivo;
+
+    ObservadorGrafoEstacion(PanelGrafoDinamico panelGrafo, String nodo, IntConsumer bahias,
+                            IntConsumer energia, Consumer<Boolean> modoActivo) {
+        this.panelGrafo = panelGrafo;
+        this.nodo = nodo;
+        this.bahias = bahias;
+        this.energia = energia;
+        this.modoActivo = modoActivo;
+    }
+
+    @Override
+    public void solicitud(int idDron, boolean critico) {
+        panelGrafo.agregarNodo(nodo, "Dron" + idDron + " solicita recarga (critico:" + critico + ")");
+    }
+
+    @Override
+    public void asignada(int idDron) {
+        panelGrafo.agregarNodo(nodo, "Bahía asignada a Dron" + idDron);
+    }
+
+    @Override
+    public void liberada(int idDron) {
+        panelGrafo.agregarNodo(nodo, "Bahía liberada por Dron" + idDron);
+    }
+
+    @Override
+    public void grupoFormado(int tamano) {
+        panelGrafo.agregarNodo(nodo, "Grupo de " + tamano + " formado - procesando recargas");
+    }
+
+    @Override
+    public void bahiasDisponibles(int disponibles) {
+        bahias.accept(disponibles);
+    }
+
+    @Override
+    public void energia(int nuevaEnergia, boolean activo) {
+        energia.accept(nuevaEnergia);
+        modoActivo.accept(activo);
+        if (activo) {
+            panelGrafo.agregarNodo(nodo, "Energía actualizada: " + nuevaEnergia);
+        }
+    }
+}
@@ -1,22 +1,106 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Grafo de asignación de recursos que se actualiza desde los hilos de simulación.
+ *
+ * Los hilos no tocan el grafo directamente: publican en un CanalEventosGrafo y
+ * un javax.swing.Timer lo vacía en el EDT a una tasa fija de cuadros. Dentro de
+ * un cuadro los cambios de flechas se combinan por par proceso/recurso y la
+ * información de cada nodo se queda con el último valor, así se crean Flecha
+ * sólo cuando de verdad aparece una y se hace un único repaint por cuadro.
+ *
+ * Los cuadros por segundo se ajustan con -Dgrafo.fps (30 por defecto) o con
+ * setFps, y la capacidad del canal con -Dgrafo.capacidadEventos (8192).
+ * Con el canal lleno sólo se descarta la información de los nodos; los
+ * cambios de nodos y flechas esperan a que el siguiente cuadro haga lugar.
+ */
 public class PanelGrafoDinamico extends JPanel {
 
-    // Usamos ConcurrentHashMap para seguridad entre hilos
-    private final ConcurrentHashMap<String, Nodo> nodos = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Flecha> flechas = new ConcurrentHashMap<>();
+    // Bits del estado de un par proceso/recurso
+    private static final int BIT_SOLICITUD = 1; // P->R
+    private static final int BIT_ASIGNACION = 2; // R->P
+
+    // Sólo se tocan desde el EDT
+    private final Map<String, Nodo> nodos = new HashMap<>();
+    private final Map<String, Flecha> flechas = new HashMap<>();
     private String tituloProblema = "Grafo de Asignación de Recursos";
 
+    private final CanalEventosGrafo canal =
+            new CanalEventosGrafo(Integer.getInteger("grafo.capacidadEventos", 8192));
+    private final Timer temporizador;
+    // Cambios pendientes del cuadro actual (EDT)
+    private final Map<String, CambioFlechas> flechasPendientes = new LinkedHashMap<>();
+    private final Map<String, String> infoPendiente = new LinkedHashMap<>();
+    private boolean hayCambios;
+
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder coalescidos = new LongAdder();
+
+    // Cambio acumulado sobre un par: nuevo = (actual & conservar) | poner
+    private static final class CambioFlechas {
+        final String proceso;
+        final String recurso;
+        int conservar = BIT_SOLICITUD | BIT_ASIGNACION;
+        int poner = 0;
+
+        CambioFlechas(String proceso, String recurso) {
+            this.proceso = proceso;
+            this.recurso = recurso;
+        }
+
+        void componer(int conservar2, int poner2) {
+            conservar &= conservar2;
+            poner = (poner & conservar2) | poner2;
+        }
+    }
+
     public PanelGrafoDinamico() {
         setBackground(new Color(255, 255, 224));
+        temporizador = new Timer(1000 / Math.max(1, Integer.getInteger("grafo.fps", 30)), e -> procesarEventos());
+        temporizador.start();
+    }
+
+    /**
+     * Cambia la tasa de cuadros con la que se aplican los eventos.
+     */
+    public void setFps(int fps) {
+        temporizador.setDelay(1000 / Math.max(1, fps));
+    }
+
+    public long getEventosPublicados() {
+        return canal.getPublicados();
+    }
+
+    /**
+     * Eventos de flechas o información que se combinaron con otro del mismo cuadro.
+     */
+    public long getEventosCoalescidos() {
+        return coalescidos.sum();
+    }
+
+    /**
+     * Actualizaciones de información perdidas porque el canal estaba lleno.
+     * Los cambios de nodos y flechas no se pierden: quien publica espera.
+     */
+    public long getEventosDescartados() {
+        return descartados.sum();
     }
 
     /**
      * Prepara los nodos iniciales para un problema específico.
      */
     public void inicializarGrafo(String problema) {
+        publicarSinPerder(CanalEventosGrafo.INICIALIZAR, problema, null, null, null, 0, 0);
+    }
+
+    private void aplicarInicializacion(String problema) {
         nodos.clear();
         flechas.clear();
         tituloProblema = "Grafo: " + problema;
@@ -94,39 +178,27 @@ public class PanelGrafoDinamico extends JPanel {
                 tituloProblema = "Grafo de Asignación de Recursos";
                 break;
         }
-        SwingUtilities.invokeLater(this::repaint);
     }
 
     /**
      * Método seguro para hilos para crear un nodo si no existe.
      */
     public void crearNodoSiNoExiste(String id, int x, int y, String tipo, String etiqueta) {
-        nodos.putIfAbsent(id, new Nodo(x, y, tipo, etiqueta));
-        SwingUtilities.invokeLater(this::repaint);
+        publicarSinPerder(CanalEventosGrafo.CREAR_NODO, id, null, tipo, etiqueta, x, y);
     }
 
     /**
      * Método para agregar o actualizar un nodo con información.
      */
     public void agregarNodo(String id, String informacion) {
-        Nodo nodo = nodos.get(id);
-        if (nodo != null) {
-            nodo.setInformacion(informacion);
-        }
-        SwingUtilities.invokeLater(this::repaint);
+        publicar(CanalEventosGrafo.INFO_NODO, id, informacion);
     }
 
     /**
      * Dibuja una flecha de solicitud (Proceso -> Recurso)
      */
     public void setFlechaSolicitud(String idProceso, String idRecurso) {
-        Nodo p = nodos.get(idProceso);
-        Nodo r = nodos.get(idRecurso);
-        if (p != null && r != null) {
-            String clave = idProceso + "->" + idRecurso; 
-            flechas.put(clave, new Flecha(p, r));
-            SwingUtilities.invokeLater(this::repaint);
-        }
+        publicarSinPerder(CanalEventosGrafo.SOLICITUD, idProceso, idRecurso, null, null, 0, 0);
     }
 
     /**
@@ -134,33 +206,144 @@ public class PanelGrafoDinamico extends JPanel {
      * y elimina la flecha de solicitud si existía.
      */
     public void setFlechaAsignacion(String idProceso, String idRecurso) {
-        Nodo p = nodos.get(idProceso);
-        Nodo r = nodos.get(idRecurso);
-        if (p != null && r != null) {
-            flechas.remove(idProceso + "->" + idRecurso); // Elimina P->R
-            String clave = idRecurso + "->" + idProceso; // Añade R->P
-            flechas.put(clave, new Flecha(r, p));
-            SwingUtilities.invokeLater(this::repaint);
-        }
+        publicarSinPerder(CanalEventosGrafo.ASIGNACION, idProceso, idRecurso, null, null, 0, 0);
     }
 
     /**
      * Elimina todas las flechas (solicitud o asignación) entre un proceso y un recurso.
      */
     public void removerFlechas(String idProceso, String idRecurso) {
-        flechas.remove(idProceso + "->" + idRecurso); // Elimina P->R
-        flechas.remove(idRecurso + "->" + idProceso); // Elimina R->P
-        SwingUtilities.invokeLater(this::repaint);
+        publicarSinPerder(CanalEventosGrafo.REMOVER_FLECHAS, idProceso, idRecurso, null, null, 0, 0);
     }
     
     /**
      * Elimina un nodo del grafo (ej. un cliente que se va).
      */
     public void removerNodo(String id) {
-        nodos.remove(id);
-        // Eliminar flechas asociadas (simplificado)
-        flechas.keySet().removeIf(key -> key.contains(id));
-        SwingUtilities.invokeLater(this::repaint);
+        publicarSinPerder(CanalEventosGrafo.REMOVER_NODO, id, null, null, null, 0, 0);
+    }
+
+    // Información de nodos: es sólo texto, si el canal está lleno se descarta
+    private void publicar(int tipo, String a, String b) {
+        if (!canal.publicar(tipo, a, b)) {
+            descartados.increment();
+        }
+    }
+
+    // Nodos y flechas: perder uno dejaría el grafo mal, así que se espera a que el EDT haga lugar
+    private void publicarSinPerder(int tipo, String a, String b, String tipoNodo, String etiqueta, int x, int y) {
+        while (!canal.publicar(tipo, a, b, tipoNodo, etiqueta, x, y)) {
+            if (SwingUtilities.isEventDispatchThread()) {
+                procesarEventos();
+            } else {
+                LockSupport.parkNanos(100_000);
+            }
+        }
+    }
+
+    /**
+     * Un cuadro: vacía el canal, combina los cambios y repinta una sola vez. Corre en el EDT.
+     */
+    private void procesarEventos() {
+        canal.drenar(this::recibir);
+        aplicarPendientes();
+        if (hayCambios) {
+            hayCambios = false;
+            repaint();
+        }
+    }
+
+    private void recibir(CanalEventosGrafo.Evento e) {
+        switch (e.tipo) {
+            case CanalEventosGrafo.SOLICITUD:
+                acumularFlechas(e.a, e.b, BIT_SOLICITUD | BIT_ASIGNACION, BIT_SOLICITUD);
+                break;
+            case CanalEventosGrafo.ASIGNACION:
+                acumularFlechas(e.a, e.b, 0, BIT_ASIGNACION);
+                break;
+            case CanalEventosGrafo.REMOVER_FLECHAS:
+                acumularFlechas(e.a, e.b, 0, 0);
+                break;
+            case CanalEventosGrafo.INFO_NODO:
+                if (infoPendiente.put(e.a, e.b) != null) coalescidos.increment();
+                break;
+            default:
+                // Los cambios de nodos se aplican en orden respecto a lo pendiente
+                aplicarPendientes();
+                aplicarEstructural(e);
+                hayCambios = true;
+                break;
+        }
+    }
+
+    private void acumularFlechas(String proceso, String recurso, int conservar, int poner) {
+        String clave = proceso + "|" + recurso;
+        CambioFlechas cambio = flechasPendientes.get(clave);
+        if (cambio == null) {
+            cambio = new CambioFlechas(proceso, recurso);
+            flechasPendientes.put(clave, cambio);
+        } else {
+            coalescidos.increment();
+        }
+        cambio.componer(conservar, poner);
+    }
+
+    private void aplicarEstructural(CanalEventosGrafo.Evento e) {
+        switch (e.tipo) {
+            case CanalEventosGrafo.INICIALIZAR:
+                aplicarInicializacion(e.a);
+                break;
+            case CanalEventosGrafo.CREAR_NODO:
+                nodos.putIfAbsent(e.a, new Nodo(e.x, e.y, e.tipoNodo, e.etiqueta));
+                break;
+            case CanalEventosGrafo.REMOVER_NODO:
+                nodos.remove(e.a);
+                String id = e.a;
+                flechas.keySet().removeIf(k -> k.startsWith(id + "->") || k.endsWith("->" + id));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void aplicarPendientes() {
+        for (Map.Entry<String, String> info : infoPendiente.entrySet()) {
+            Nodo nodo = nodos.get(info.getKey());
+            if (nodo != null) {
+                nodo.setInformacion(info.getValue());
+                hayCambios = true;
+            }
+        }
+        infoPendiente.clear();
+
+        for (Iterator<CambioFlechas> it = flechasPendientes.values().iterator(); it.hasNext(); ) {
+            CambioFlechas c = it.next();
+            it.remove();
+            String claveSolicitud = c.proceso + "->" + c.recurso;
+            String claveAsignacion = c.recurso + "->" + c.proceso;
+            int actual = (flechas.containsKey(claveSolicitud) ? BIT_SOLICITUD : 0)
+                    | (flechas.containsKey(claveAsignacion) ? BIT_ASIGNACION : 0);
+            int nuevo = (actual & c.conservar) | c.poner;
+            if (nuevo == actual) continue;
+            Nodo p = nodos.get(c.proceso);
+            Nodo r = nodos.get(c.recurso);
+            if (p == null || r == null) {
+                // Como antes: sin ambos nodos sólo se pueden quitar flechas
+                nuevo = actual & nuevo;
+            }
+            actualizarFlecha(claveSolicitud, actual, nuevo, BIT_SOLICITUD, p, r);
+            actualizarFlecha(claveAsignacion, actual, nuevo, BIT_ASIGNACION, r, p);
+        }
+    }
+
+    private void actualizarFlecha(String clave, int actual, int nuevo, int bit, Nodo desde, Nodo hasta) {
+        if ((actual & bit) == (nuevo & bit)) return;
+        if ((nuevo & bit) != 0) {
+            flechas.put(clave, new Flecha(desde, hasta));
+        } else {
+            flechas.remove(clave);
+        }
+        hayCambios = true;
     }
 
 
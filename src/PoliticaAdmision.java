@@ -0,0 +1,58 @@
+/**
+ * Qué hace GestorEstacion.tryRecarga cuando llega un dron y la cola ya está
+ * llena para su clase (ver GestorEstacion.setAdmision):
+ *   rechazar          el que llega se va con su sugerencia de reintento
+ *   descartarAntiguo  sale el normal que lleva más tiempo esperando (con su
+ *                     tryRecarga descartada) y el que llega entra; si no hay
+ *                     normales que descartar, se rechaza al que llega
+ * Sólo se descartan drones que esperan en tryRecarga: los de
+ * solicitarRecarga no tienen cómo enterarse. Descartar es cancelar su
+ * espera en la estación (Cancelacion), no interrumpir su hilo.
+ */
+interface PoliticaAdmision {
+    String RECHAZAR = "rechazar";
+    String DESCARTAR_ANTIGUO = "descartarAntiguo";
+
+    /**
+     * Normales en espera que se pueden sacar de la cola, del más antiguo al
+     * más nuevo.
+     */
+    interface Descartables {
+        /** Saca al más antiguo; false si no había ninguno. */
+        boolean descartarMasAntiguo();
+    }
+
+    /**
+     * true si hizo lugar y el dron que llega entra; false si se rechaza.
+     */
+    boolean hacerLugar(boolean critico, Descartables normales);
+
+    /** Si hay que llevar la cuenta de los normales descartables. */
+    default boolean descarta() {
+        return false;
+    }
+
+    static PoliticaAdmision porNombre(String nombre) {
+        switch (nombre) {
+            case RECHAZAR:
+                return (critico, normales) -> false;
+            case DESCARTAR_ANTIGUO:
+                return new DescartarAntiguo();
+            default:
+                throw new IllegalArgumentException("Política de admisión desconocida: " + nombre
+                        + " (" + RECHAZAR + " o " + DESCARTAR_ANTIGUO + ")");
+        }
+    }
+
+    final class DescartarAntiguo implements PoliticaAdmision {
+        @Override
+        public boolean hacerLugar(boolean critico, Descartables normales) {
+            return normales.descartarMasAntiguo();
+        }
+
+        @Override
+        public boolean descarta() {
+            return true;
+        }
+    }
+}
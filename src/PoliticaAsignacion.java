@@ -0,0 +1,162 @@
+/**
+ * Reglas de quién recibe bahía, sin hilos ni candados, para el simulador de
+ * eventos discretos (SimuladorEstacion). Son las mismas que aplican las
+ * estrategias de EstacionCarga:
+ *   Prioridad  críticos antes que normales, FIFO dentro de cada grupo
+ *              (Monitores, MonitoresSignalAll, LockCondicion, Mutex,
+ *              MutexSignalAll, Semaforos y LockFree)
+ *   Barrera    grupos de hasta TAMANO_GRUPO que entran juntos cuando están
+ *              completos o vence su espera (EstacionBarrera)
+ * El tiempo es el del reloj virtual del simulador, en ms.
+ */
+interface PoliticaAsignacion {
+
+    void encolar(int idDron, boolean critico, long ahora);
+
+    /**
+     * Escribe en admitidos los drones que reciben bahía ahora, en orden, y
+     * devuelve cuántos son (como mucho libres).
+     */
+    int admitir(int libres, long ahora, int[] admitidos);
+
+    /**
+     * Próximo instante en que admitir puede cambiar sin que llegue ni se
+     * libere nadie; Long.MAX_VALUE si no hay.
+     */
+    default long vencimiento() {
+        return Long.MAX_VALUE;
+    }
+
+    int enEspera();
+
+    static PoliticaAsignacion paraAlgoritmo(String algoritmo, int bahias) {
+        if (!EstacionesCarga.existe(algoritmo)) {
+            throw new IllegalArgumentException("Algoritmo de estación desconocido: " + algoritmo);
+        }
+        if (algoritmo.startsWith("Barrera")) {
+            return new Barrera(bahias, EstacionBarrera.ESPERA_GRUPO_MS);
+        }
+        return new Prioridad();
+    }
+
+    final class Prioridad implements PoliticaAsignacion {
+        private final Cola criticos = new Cola();
+        private final Cola normales = new Cola();
+
+        @Override
+        public void encolar(int idDron, boolean critico, long ahora) {
+            (critico ? criticos : normales).agregar(idDron, ahora);
+        }
+
+        @Override
+        public int admitir(int libres, long ahora, int[] admitidos) {
+            int n = 0;
+            while (n < libres && !criticos.estaVacia()) admitidos[n++] = criticos.sacar();
+            while (n < libres && !normales.estaVacia()) admitidos[n++] = normales.sacar();
+            return n;
+        }
+
+        @Override
+        public int enEspera() {
+            return criticos.tamano() + normales.tamano();
+        }
+    }
+
+    final class Barrera implements PoliticaAsignacion {
+        private final int tamanoGrupo;
+        private final int bahias;
+        private final long esperaGrupoMs;
+        private final Cola cola = new Cola();
+        private long ultimaApertura = Long.MIN_VALUE;
+        private boolean llegoSolo; // el último llegó sin nadie en la cola
+
+        Barrera(int bahias, long esperaGrupoMs) {
+            this.bahias = bahias;
+            this.tamanoGrupo = Math.max(1, Math.min(EstacionBarrera.TAMANO_GRUPO, bahias));
+            this.esperaGrupoMs = esperaGrupoMs;
+        }
+
+        @Override
+        public void encolar(int idDron, boolean critico, long ahora) {
+            llegoSolo = cola.tamano() == 0;
+            cola.agregar(idDron, ahora);
+        }
+
+        @Override
+        public int admitir(int libres, long ahora, int[] admitidos) {
+            int grupo = Math.min(cola.tamano(), tamanoGrupo);
+            // Como EstacionBarrera: a la estación vacía se entra sin esperar grupo
+            boolean estacionVacia = llegoSolo && grupo == 1 && libres == bahias;
+            llegoSolo = false;
+            if (grupo == 0 || libres < grupo) return 0;
+            if (grupo < tamanoGrupo && ahora < limite() && !estacionVacia) return 0;
+            for (int i = 0; i < grupo; i++) {
+                admitidos[i] = cola.sacar();
+            }
+            ultimaApertura = ahora;
+            return grupo;
+        }
+
+        @Override
+        public long vencimiento() {
+            return cola.tamano() == 0 || cola.tamano() >= tamanoGrupo ? Long.MAX_VALUE : limite();
+        }
+
+        // El grupo empieza con su primer dron, o al abrirse el anterior si ya esperaba
+        private long limite() {
+            return Math.max(cola.primeraLlegada(), ultimaApertura) + esperaGrupoMs;
+        }
+
+        @Override
+        public int enEspera() {
+            return cola.tamano();
+        }
+    }
+
+    /**
+     * FIFO de ids con su hora de llegada, en un arreglo circular que crece.
+     */
+    final class Cola {
+        private int[] ids = new int[16];
+        private long[] llegadas = new long[16];
+        private int cabeza;
+        private int cantidad;
+
+        void agregar(int id, long llegada) {
+            if (cantidad == ids.length) {
+                int[] nuevosIds = new int[ids.length * 2];
+                long[] nuevasLlegadas = new long[ids.length * 2];
+                for (int i = 0; i < cantidad; i++) {
+                    nuevosIds[i] = ids[(cabeza + i) % ids.length];
+                    nuevasLlegadas[i] = llegadas[(cabeza + i) % ids.length];
+                }
+                ids = nuevosIds;
+                llegadas = nuevasLlegadas;
+                cabeza = 0;
+            }
+            int p = (cabeza + cantidad) % ids.length;
+            ids[p] = id;
+            llegadas[p] = llegada;
+            cantidad++;
+        }
+
+        int sacar() {
+            int id = ids[cabeza];
+            cabeza = (cabeza + 1) % ids.length;
+            cantidad--;
+            return id;
+        }
+
+        long primeraLlegada() {
+            return llegadas[cabeza];
+        }
+
+        boolean estaVacia() {
+            return cantidad == 0;
+        }
+
+        int tamano() {
+            return cantidad;
+        }
+    }
+}
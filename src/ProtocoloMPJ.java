@@ -0,0 +1,125 @@
+import mpi.*;
+
+/**
+ * Formato de los mensajes entre los trabajadores de EstacionSolarMPJ y el maestro.
+ *
+ * Un mensaje TAG_LOTE es un int[]: en la posición 0 va la cantidad de
+ * registros y después los registros, de TAM_REGISTRO enteros cada uno:
+ * [tipo, id, valor]. Cada trabajador junta sus eventos en un Lote y lo envía
+ * cuando tiene EVENTOS_POR_LOTE registros (-Dmpj.lote) o cuando el registro más
+ * viejo lleva MS_POR_LOTE ms esperando (-Dmpj.loteMs), así se manda un mensaje
+ * por muchos eventos en lugar de uno por evento. El maestro recibe cada lote en
+ * un buffer fijo de tamMensaje(EVENTOS_POR_LOTE) enteros, por lo que todos los
+ * procesos deben arrancar con el mismo -Dmpj.lote.
+ *
+ * En el modo compartido (EstacionCompartidaMPJ) los mismos lotes van también de
+ * los ranks de drones a los de estación con TAG_ESTACION (PEDIR, LIBERAR, FIN)
+ * y de regreso con TAG_CONCEDER (CONCEDER, y FIN como acuse del FIN del rank).
+ */
+final class ProtocoloMPJ {
+
+    static final int TAG_LOTE = 3;
+    static final int TAG_ESTACION = 4;
+    static final int TAG_CONCEDER = 5;
+    static final int TAG_RESUMEN = 6; // long[] de ResumenMPJ, del primer trabajador al maestro
+    static final int TAM_REGISTRO = 3;
+
+    // Tipos de registro
+    static final int SOLICITUD = 0;  // id = dron
+    static final int COMPLETADO = 1; // id = dron, valor = espera por la bahía en µs
+    static final int RONDA = 2;      // id = rank, valor = duración de la ronda en µs
+    static final int FIN = 3;        // id = rank, valor = rondas completadas; es el último registro del rank
+    static final int PEDIR = 4;      // id = dron, valor = 1 si es crítico
+    static final int LIBERAR = 5;    // id = dron
+    static final int CONCEDER = 6;   // id = dron
+
+    static final int EVENTOS_POR_LOTE = Math.max(1, Integer.getInteger("mpj.lote", 256));
+    static final long MS_POR_LOTE = Long.getLong("mpj.loteMs", 100);
+
+    private ProtocoloMPJ() {
+    }
+
+    static int tamMensaje(int registros) {
+        return 1 + registros * TAM_REGISTRO;
+    }
+
+    /**
+     * Registros pendientes de un trabajador. El buffer se reutiliza entre
+     * envíos. Lo usa un solo hilo.
+     */
+    static final class Lote {
+        private final int[] buffer;
+        private final int maxRegistros;
+        private final int destino;
+        private final int tag;
+        private final long limiteNs;
+        private int cantidad;
+        private long primero; // nanoTime del registro más viejo sin enviar
+        private long mensajes;
+        private long eventos;
+
+        Lote(int destino) {
+            this(destino, TAG_LOTE);
+        }
+
+        Lote(int destino, int tag) {
+            this(destino, tag, EVENTOS_POR_LOTE, MS_POR_LOTE);
+        }
+
+        Lote(int destino, int tag, int maxRegistros, long msPorLote) {
+            this.destino = destino;
+            this.tag = tag;
+            this.maxRegistros = maxRegistros;
+            this.limiteNs = msPorLote * 1_000_000L;
+            buffer = new int[tamMensaje(maxRegistros)];
+        }
+
+        void agregar(int tipo, int id, int valor) throws MPIException {
+            long ahora = System.nanoTime();
+            if (cantidad == 0) {
+                primero = ahora;
+            }
+            int p = tamMensaje(cantidad);
+            buffer[p] = tipo;
+            buffer[p + 1] = id;
+            buffer[p + 2] = valor;
+            cantidad++;
+            eventos++;
+            if (cantidad == maxRegistros || ahora - primero >= limiteNs) {
+                enviar();
+            }
+        }
+
+        /**
+         * Envía lo pendiente, si hay algo.
+         */
+        void enviar() throws MPIException {
+            if (cantidad == 0) return;
+            buffer[0] = cantidad;
+            MPI.COMM_WORLD.Send(buffer, 0, tamMensaje(cantidad), MPI.INT, destino, tag);
+            cantidad = 0;
+            mensajes++;
+        }
+
+        /**
+         * Envía lo pendiente sólo si el registro más viejo ya esperó el límite.
+         */
+        void enviarSiVencido() throws MPIException {
+            if (cantidad > 0 && System.nanoTime() - primero >= limiteNs) {
+                enviar();
+            }
+        }
+
+        boolean estaVacio() {
+            return cantidad == 0;
+        }
+
+        long getMensajes() {
+            return mensajes;
+        }
+
+        long getEventos() {
+            return eventos;
+        }
+    }
+}
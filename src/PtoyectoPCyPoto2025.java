@@ -15,6 +15,7 @@ public class PtoyectoPCyPoto2025 extends JFrame {
     private JMenuItem itemVariableCondicion;
     private JMenuItem itemMonitores;
     private JMenuItem itemBarreras;
+    private JCheckBoxMenuItem itemHilosVirtuales;
     private JMenu menuProblemas;
     private JMenuItem itemProductorConsumidor;
     private JMenuItem itemCenaFilosofos;
@@ -112,6 +113,7 @@ public class PtoyectoPCyPoto2025 extends JFrame {
         itemVariableCondicion = new JMenuItem("Variable de Condición");
         itemMonitores = new JMenuItem("Monitores");
         itemBarreras = new JMenuItem("Barreras");
+        itemHilosVirtuales = new JCheckBoxMenuItem("Hilos virtuales", FabricaHilos.usaHilosVirtuales());
         menuProblemas = new JMenu("Problemas");
         itemProductorConsumidor = new JMenuItem("Productor - Consumidor");
         itemCenaFilosofos = new JMenuItem("Cena de los Filósofos");
@@ -143,6 +145,8 @@ public class PtoyectoPCyPoto2025 extends JFrame {
         menuSincronizacion.add(itemVariableCondicion);
         menuSincronizacion.add(itemMonitores);
         menuSincronizacion.add(itemBarreras);
+        menuSincronizacion.addSeparator();
+        menuSincronizacion.add(itemHilosVirtuales);
         menuProblemas.add(itemProductorConsumidor);
         menuProblemas.add(itemCenaFilosofos);
         menuProblemas.add(itemBarberoDormilon);
@@ -161,6 +165,8 @@ public class PtoyectoPCyPoto2025 extends JFrame {
         itemSemaforo.addActionListener(e -> setSincronizacion("Semáforo"));
         itemVariableCondicion.addActionListener(e -> setSincronizacion("Variable de Condición"));
         itemMonitores.addActionListener(e -> setSincronizacion("Monitores")); 
+        // Aplica a las simulaciones que se inicien después del cambio
+        itemHilosVirtuales.addActionListener(e -> FabricaHilos.setHilosVirtuales(itemHilosVirtuales.isSelected()));
 
         // Agregar acción a los problemas
         itemCenaFilosofos.addActionListener(e -> mostrarCenaFilosofos());
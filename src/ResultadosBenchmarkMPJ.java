@@ -0,0 +1,325 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resultados de una corrida sin interfaz de EstacionSolarMPJ.
+ *
+ * Los datos llegan de dos formas: registros sueltos de ProtocoloMPJ (modo
+ * compartido) o resúmenes por intervalo de ResumenMPJ (modo por algoritmo).
+ * Por rank se cuentan rondas, recargas (y cuántas fueron críticas), el tiempo
+ * de las rondas y la espera por bahía, con sus histogramas (en los resúmenes
+ * llega el de cada rank). Los histogramas de todos los ranks juntos van en
+ * una fila "total". Al final se escribe prefijo.csv y lo mismo, junto con la
+ * configuración, en prefijo.json, para poder comparar corridas entre versiones.
+ * Los percentiles que no se conocen quedan vacíos (null en el JSON).
+ *
+ * Los ranks con la misma etiqueta son réplicas: en prefijo_algoritmos.csv (y
+ * en "algoritmos" del JSON) va por etiqueta la media entre réplicas del tiempo
+ * medio de ronda, de las recargas por segundo y de la espera media, cada una
+ * con la mitad del intervalo de confianza del 95 % (t de Student; vacío con
+ * una sola réplica).
+ */
+public class ResultadosBenchmarkMPJ {
+
+    static final String ENCABEZADO =
+            "rank,algoritmo,rondas,recargas,criticas,media_ms,p50_ms,p90_ms,p99_ms,max_ms,recargas_seg,"
+            + "espera_media_ms,espera_p50_ms,espera_p99_ms,espera_max_ms";
+
+    private static final String[] CAMPOS = ENCABEZADO.split(",");
+
+    static final String ENCABEZADO_ALGORITMOS =
+            "algoritmo,replicas,media_ms,ic95_media_ms,recargas_seg,ic95_recargas_seg,espera_media_ms,ic95_espera_ms";
+
+    private static final String[] CAMPOS_ALGORITMOS = ENCABEZADO_ALGORITMOS.split(",");
+
+    // t de Student de dos colas al 95 % para 1..30 grados de libertad; después, 1.96
+    private static final double[] T_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    private static class PorRank {
+        String algoritmo;
+        final HistogramaLatencia rondas = new HistogramaLatencia();
+        final HistogramaLatencia esperas = new HistogramaLatencia();
+        long numRondas;
+        long recargas;
+        long criticas;
+        long microsegundos;
+        long esperaUs;
+        boolean terminado;
+    }
+
+    private final PorRank[] ranks; // índice = rank; el 0 es el maestro
+    private final PorRank total = new PorRank();
+    private final String configuracion;
+    private long resumenes;
+
+    /**
+     * @param configuracion texto libre (por ejemplo las opciones de la corrida)
+     *                      que se copia tal cual al JSON
+     */
+    public ResultadosBenchmarkMPJ(int numRanks, String configuracion) {
+        ranks = new PorRank[numRanks];
+        for (int r = 1; r < numRanks; r++) {
+            ranks[r] = new PorRank();
+            ranks[r].algoritmo = "rank " + r;
+        }
+        total.algoritmo = "todos";
+        this.configuracion = configuracion;
+    }
+
+    /**
+     * Cuenta un registro suelto recibido del rank dado.
+     */
+    public synchronized void registrar(int rank, int tipo, int valor) {
+        if (rank <= 0 || rank >= ranks.length) return;
+        PorRank r = ranks[rank];
+        switch (tipo) {
+            case ProtocoloMPJ.COMPLETADO:
+                sumarRecarga(r, valor);
+                sumarRecarga(total, valor);
+                break;
+            case ProtocoloMPJ.RONDA:
+                sumarRonda(r, valor);
+                sumarRonda(total, valor);
+                break;
+            case ProtocoloMPJ.FIN:
+                r.terminado = true;
+                break;
+        }
+    }
+
+    private static void sumarRecarga(PorRank r, int esperaUs) {
+        r.recargas++;
+        r.esperaUs += esperaUs;
+        r.esperas.registrar(esperaUs);
+    }
+
+    private static void sumarRonda(PorRank r, int duracionUs) {
+        r.numRondas++;
+        r.microsegundos += duracionUs;
+        r.rondas.registrar(duracionUs);
+    }
+
+    /**
+     * Suma un mensaje de ResumenMPJ, con los histogramas de cada rank.
+     */
+    public synchronized void registrarResumen(long[] mensaje) {
+        resumenes++;
+        int trabajadores = Math.min(ResumenMPJ.trabajadores(mensaje), ranks.length - 1);
+        for (int rank = 1; rank <= trabajadores; rank++) {
+            PorRank r = ranks[rank];
+            r.numRondas += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.RONDAS);
+            r.recargas += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.RECARGAS);
+            r.criticas += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.CRITICAS);
+            r.microsegundos += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.TIEMPO_RONDAS_US);
+            r.esperaUs += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.ESPERA_US);
+            total.numRondas += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.RONDAS);
+            total.recargas += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.RECARGAS);
+            total.criticas += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.CRITICAS);
+            total.microsegundos += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.TIEMPO_RONDAS_US);
+            total.esperaUs += ResumenMPJ.fila(mensaje, rank, ResumenMPJ.ESPERA_US);
+            ResumenMPJ.sumarEsperas(mensaje, rank, r.esperas);
+            ResumenMPJ.sumarRondas(mensaje, rank, r.rondas);
+            ResumenMPJ.sumarEsperas(mensaje, rank, total.esperas);
+            ResumenMPJ.sumarRondas(mensaje, rank, total.rondas);
+        }
+    }
+
+    /**
+     * Cambia la etiqueta de un rank; los ranks con la misma etiqueta se agregan
+     * como réplicas.
+     */
+    public synchronized void setAlgoritmo(int rank, String nombre) {
+        if (rank > 0 && rank < ranks.length) {
+            ranks[rank].algoritmo = nombre;
+        }
+    }
+
+    public synchronized String csv() {
+        StringBuilder sb = new StringBuilder(ENCABEZADO).append('\n');
+        for (int rank = 1; rank < ranks.length; rank++) {
+            sb.append(String.join(",", valores(String.valueOf(rank), ranks[rank]))).append('\n');
+        }
+        sb.append(String.join(",", valores("total", total))).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Una fila por etiqueta, en el orden en que aparecen los ranks.
+     */
+    public synchronized String csvAlgoritmos() {
+        StringBuilder sb = new StringBuilder(ENCABEZADO_ALGORITMOS).append('\n');
+        for (String[] fila : filasAlgoritmos()) {
+            sb.append(String.join(",", fila)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public synchronized String json() {
+        StringBuilder sb = new StringBuilder("{\n");
+        sb.append("  \"configuracion\": \"").append(escapar(configuracion)).append("\",\n");
+        sb.append("  \"resumenes\": ").append(resumenes).append(",\n");
+        sb.append("  \"ranks\": [");
+        for (int rank = 1; rank <= ranks.length; rank++) {
+            boolean esTotal = rank == ranks.length;
+            PorRank r = esTotal ? total : ranks[rank];
+            String[] valores = valores(esTotal ? "total" : String.valueOf(rank), r);
+            sb.append(rank == 1 ? "\n    {" : ",\n    {");
+            for (int c = 0; c < CAMPOS.length; c++) {
+                if (c > 0) sb.append(", ");
+                sb.append('"').append(CAMPOS[c]).append("\": ");
+                if (c == 1 || (c == 0 && esTotal)) {
+                    sb.append('"').append(escapar(valores[c])).append('"');
+                } else {
+                    sb.append(valores[c].isEmpty() ? "null" : valores[c]);
+                }
+            }
+            if (!esTotal) {
+                sb.append(", \"terminado\": ").append(r.terminado);
+            }
+            sb.append('}');
+        }
+        sb.append("\n  ],\n  \"algoritmos\": [");
+        List<String[]> filas = filasAlgoritmos();
+        for (int f = 0; f < filas.size(); f++) {
+            String[] fila = filas.get(f);
+            sb.append(f == 0 ? "\n    {" : ",\n    {");
+            for (int c = 0; c < CAMPOS_ALGORITMOS.length; c++) {
+                if (c > 0) sb.append(", ");
+                sb.append('"').append(CAMPOS_ALGORITMOS[c]).append("\": ");
+                if (c == 0) {
+                    sb.append('"').append(escapar(fila[c])).append('"');
+                } else {
+                    sb.append(fila[c].isEmpty() ? "null" : fila[c]);
+                }
+            }
+            sb.append('}');
+        }
+        sb.append("\n  ]\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Escribe prefijo.csv, prefijo_algoritmos.csv y prefijo.json.
+     */
+    public void escribir(String prefijo) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(prefijo + ".csv"), StandardCharsets.UTF_8))) {
+            out.print(csv());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(prefijo + "_algoritmos.csv"), StandardCharsets.UTF_8))) {
+            out.print(csvAlgoritmos());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(prefijo + ".json"), StandardCharsets.UTF_8))) {
+            out.print(json());
+        }
+    }
+
+    // Una fila en el orden de ENCABEZADO
+    private String[] valores(String rank, PorRank r) {
+        boolean conRondas = r.rondas.getCantidad() > 0;
+        boolean conEsperas = r.esperas.getCantidad() > 0;
+        return new String[]{
+                rank,
+                r.algoritmo,
+                String.valueOf(r.numRondas),
+                String.valueOf(r.recargas),
+                String.valueOf(r.criticas),
+                ms(r.numRondas == 0 ? 0 : (double) r.microsegundos / r.numRondas),
+                conRondas ? ms(r.rondas.percentil(50)) : "",
+                conRondas ? ms(r.rondas.percentil(90)) : "",
+                conRondas ? ms(r.rondas.percentil(99)) : "",
+                conRondas ? ms(r.rondas.getMaximo()) : "",
+                String.format(Locale.ROOT, "%.1f", recargasPorSegundo(r)),
+                ms(r.recargas == 0 ? 0 : (double) r.esperaUs / r.recargas),
+                conEsperas ? ms(r.esperas.percentil(50)) : "",
+                conEsperas ? ms(r.esperas.percentil(99)) : "",
+                conEsperas ? ms(r.esperas.getMaximo()) : ""
+        };
+    }
+
+    // Una fila por etiqueta en el orden de ENCABEZADO_ALGORITMOS. Sólo cuentan
+    // las réplicas que completaron al menos una ronda.
+    private List<String[]> filasAlgoritmos() {
+        Map<String, List<PorRank>> grupos = new LinkedHashMap<>();
+        for (int rank = 1; rank < ranks.length; rank++) {
+            grupos.computeIfAbsent(ranks[rank].algoritmo, k -> new ArrayList<>()).add(ranks[rank]);
+        }
+        List<String[]> filas = new ArrayList<>();
+        for (Map.Entry<String, List<PorRank>> grupo : grupos.entrySet()) {
+            List<PorRank> replicas = new ArrayList<>();
+            for (PorRank r : grupo.getValue()) {
+                if (r.numRondas > 0) replicas.add(r);
+            }
+            int n = replicas.size();
+            double[] medias = new double[n];
+            double[] recargas = new double[n];
+            double[] esperas = new double[n];
+            for (int i = 0; i < n; i++) {
+                PorRank r = replicas.get(i);
+                medias[i] = (double) r.microsegundos / r.numRondas;
+                recargas[i] = recargasPorSegundo(r);
+                esperas[i] = r.recargas == 0 ? 0 : (double) r.esperaUs / r.recargas;
+            }
+            filas.add(new String[]{
+                    grupo.getKey(),
+                    String.valueOf(n),
+                    n == 0 ? "" : ms(media(medias)),
+                    n < 2 ? "" : ms(intervalo95(medias)),
+                    n == 0 ? "" : String.format(Locale.ROOT, "%.1f", media(recargas)),
+                    n < 2 ? "" : String.format(Locale.ROOT, "%.1f", intervalo95(recargas)),
+                    n == 0 ? "" : ms(media(esperas)),
+                    n < 2 ? "" : ms(intervalo95(esperas))
+            });
+        }
+        return filas;
+    }
+
+    private static double media(double[] valores) {
+        double suma = 0;
+        for (double v : valores) suma += v;
+        return suma / valores.length;
+    }
+
+    // Mitad del intervalo de confianza del 95 % de la media (n >= 2)
+    private static double intervalo95(double[] valores) {
+        int n = valores.length;
+        double media = media(valores);
+        double cuadrados = 0;
+        for (double v : valores) cuadrados += (v - media) * (v - media);
+        double desviacion = Math.sqrt(cuadrados / (n - 1));
+        double t = n - 1 <= T_95.length ? T_95[n - 2] : 1.96;
+        return t * desviacion / Math.sqrt(n);
+    }
+
+    private static String ms(double microsegundos) {
+        return String.format(Locale.ROOT, "%.3f", microsegundos / 1000.0);
+    }
+
+    // Recargas por segundo de tiempo medido (suma de las rondas, sin pausas).
+    // En el total es la suma de lo que logró cada rank.
+    private double recargasPorSegundo(PorRank r) {
+        if (r != total) {
+            return r.microsegundos == 0 ? 0 : r.recargas / (r.microsegundos / 1_000_000.0);
+        }
+        double suma = 0;
+        for (int rank = 1; rank < ranks.length; rank++) {
+            suma += recargasPorSegundo(ranks[rank]);
+        }
+        return suma;
+    }
+
+    private static String escapar(String texto) {
+        return texto.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,129 @@
+import mpi.*;
+import java.util.Arrays;
+
+/**
+ * Estadísticas de los trabajadores de EstacionSolarMPJ juntadas con colectivas.
+ *
+ * Cada trabajador acumula localmente sus recargas (críticas y normales), la
+ * espera de cada dron y la duración de cada ronda. Al terminar (y, si se
+ * pidió, cada `cadencia` rondas) todos los trabajadores llaman a reducir sobre
+ * su propio comunicador (sin el maestro, que sigue atendiendo mensajes): un
+ * Gather de una fila por rank con sus contadores, sus máximos y sus
+ * histogramas de espera y de ronda exportados. Los histogramas van por rank,
+ * no sumados con Allreduce, para que los resultados conserven los percentiles
+ * de cada rank; el total se suma en el maestro. El primer trabajador manda el
+ * resultado al maestro en un solo mensaje TAG_RESUMEN, así el maestro recibe
+ * un resumen por intervalo en lugar de un mensaje por evento, y su tamaño
+ * depende del número de ranks, no de los eventos.
+ *
+ * Mensaje (long[]): [intervalo, ultimo, trabajadores, filas...]. La fila k es
+ * del rank k + 1 del mundo: [COLUMNAS contadores, esperaMax, rondaMax,
+ * histograma de esperas, histograma de rondas]. Los tiempos van en µs.
+ */
+final class ResumenMPJ {
+
+    // Columnas de la fila de cada rank
+    static final int RONDAS = 0;
+    static final int RECARGAS = 1;
+    static final int CRITICAS = 2;
+    static final int TIEMPO_RONDAS_US = 3;
+    static final int ESPERA_US = 4;
+    static final int COLUMNAS = 5;
+
+    // Resto de la fila
+    private static final int ESPERA_MAX = COLUMNAS;
+    private static final int RONDA_MAX = COLUMNAS + 1;
+    private static final int DESDE_ESPERAS = COLUMNAS + 2;
+    private static final int DESDE_RONDAS = DESDE_ESPERAS + HistogramaLatencia.TAM_EXPORTADO;
+    private static final int TAM_FILA = DESDE_RONDAS + HistogramaLatencia.TAM_EXPORTADO;
+
+    private static final int ENCABEZADO = 3;
+
+    private final Intracomm trabajadores;
+    private final int numTrabajadores;
+    private final HistogramaLatencia esperas = new HistogramaLatencia();
+    private final HistogramaLatencia rondas = new HistogramaLatencia();
+    private final long[] fila = new long[TAM_FILA];
+    private final long[] filas;
+    private final long[] mensaje; // sólo en el primer trabajador
+    private int intervalo;
+
+    ResumenMPJ(Intracomm trabajadores) throws MPIException {
+        this.trabajadores = trabajadores;
+        this.numTrabajadores = trabajadores.Size();
+        this.filas = new long[numTrabajadores * TAM_FILA];
+        this.mensaje = trabajadores.Rank() == 0 ? new long[tamMensaje(numTrabajadores)] : null;
+    }
+
+    static int tamMensaje(int trabajadores) {
+        return ENCABEZADO + trabajadores * TAM_FILA;
+    }
+
+    void registrarRecarga(boolean critico, long esperaUs) {
+        esperas.registrar(esperaUs);
+        fila[RECARGAS]++;
+        if (critico) fila[CRITICAS]++;
+        fila[ESPERA_US] += esperaUs;
+    }
+
+    void registrarRonda(long duracionUs) {
+        rondas.registrar(duracionUs);
+        fila[RONDAS]++;
+        fila[TIEMPO_RONDAS_US] += duracionUs;
+    }
+
+    /**
+     * Junta lo acumulado desde la llamada anterior y lo reinicia. Es colectiva
+     * y bloqueante: todos los trabajadores deben llamarla en la misma ronda y
+     * con el mismo valor de ultimo, y ninguno sigue hasta que llegue el último.
+     */
+    void reducir(boolean ultimo) throws MPIException {
+        fila[ESPERA_MAX] = esperas.getMaximo();
+        fila[RONDA_MAX] = rondas.getMaximo();
+        esperas.exportar(fila, DESDE_ESPERAS);
+        rondas.exportar(fila, DESDE_RONDAS);
+
+        trabajadores.Gather(fila, 0, TAM_FILA, MPI.LONG, filas, 0, TAM_FILA, MPI.LONG, 0);
+
+        if (mensaje != null) {
+            mensaje[0] = intervalo;
+            mensaje[1] = ultimo ? 1 : 0;
+            mensaje[2] = numTrabajadores;
+            System.arraycopy(filas, 0, mensaje, ENCABEZADO, filas.length);
+            MPI.COMM_WORLD.Send(mensaje, 0, mensaje.length, MPI.LONG, 0, ProtocoloMPJ.TAG_RESUMEN);
+        }
+
+        intervalo++;
+        esperas.reiniciar();
+        rondas.reiniciar();
+        Arrays.fill(fila, 0);
+    }
+
+    // Lectura de un mensaje recibido por el maestro
+
+    static boolean esUltimo(long[] mensaje) {
+        return mensaje[1] != 0;
+    }
+
+    static int trabajadores(long[] mensaje) {
+        return (int) mensaje[2];
+    }
+
+    static long fila(long[] mensaje, int rank, int columna) {
+        return mensaje[inicioFila(rank) + columna];
+    }
+
+    static void sumarEsperas(long[] mensaje, int rank, HistogramaLatencia destino) {
+        int f = inicioFila(rank);
+        destino.sumarExportado(mensaje, f + DESDE_ESPERAS, mensaje[f + ESPERA_MAX]);
+    }
+
+    static void sumarRondas(long[] mensaje, int rank, HistogramaLatencia destino) {
+        int f = inicioFila(rank);
+        destino.sumarExportado(mensaje, f + DESDE_RONDAS, mensaje[f + RONDA_MAX]);
+    }
+
+    private static int inicioFila(int rank) {
+        return ENCABEZADO + (rank - 1) * TAM_FILA;
+    }
+}
@@ -0,0 +1,175 @@
+import org.jfree.data.xy.XYSeries;
+
+/**
+ * Almacén acotado de los puntos crudos de una serie de GraficasPanel.
+ *
+ * Los puntos viven en dos arreglos circulares de double. Se conservan a lo
+ * sumo capacidad puntos y, si ventanaX es mayor que cero, sólo los que están
+ * a menos de ventanaX del último X. Los que salen se entregan al Volcado, si
+ * hay uno, para no perder los datos crudos.
+ *
+ * La XYSeries que se dibuja no guarda los puntos crudos: reducir la reescribe
+ * con a lo sumo cuatro puntos por cubeta (primero, mínimo, máximo y último,
+ * en su orden original), así una línea dibujada con una cubeta por pixel se ve
+ * igual que con todos los puntos y el costo de pintar no crece con la corrida.
+ * Se espera que X no decrezca. Sólo se usa desde el EDT.
+ */
+class SerieVentana {
+
+    /**
+     * Recibe los puntos que salen de la ventana.
+     */
+    interface Volcado {
+        void volcar(int serie, double x, double y);
+    }
+
+    private final int serie;
+    private final double[] xs;
+    private final double[] ys;
+    private final double ventanaX;
+    private int inicio;
+    private int cantidad;
+    private long desalojados;
+    private Volcado volcado;
+
+    SerieVentana(int serie, int capacidad, double ventanaX) {
+        this.serie = serie;
+        int cap = Math.max(4, capacidad);
+        xs = new double[cap];
+        ys = new double[cap];
+        this.ventanaX = ventanaX;
+    }
+
+    void setVolcado(Volcado volcado) {
+        this.volcado = volcado;
+    }
+
+    void agregar(double x, double y) {
+        if (cantidad == xs.length) {
+            desalojar();
+        }
+        int i = (inicio + cantidad) % xs.length;
+        xs[i] = x;
+        ys[i] = y;
+        cantidad++;
+        if (ventanaX > 0) {
+            while (cantidad > 1 && xs[inicio] < x - ventanaX) {
+                desalojar();
+            }
+        }
+    }
+
+    private void desalojar() {
+        if (volcado != null) {
+            volcado.volcar(serie, xs[inicio], ys[inicio]);
+        }
+        inicio = (inicio + 1) % xs.length;
+        cantidad--;
+        desalojados++;
+    }
+
+    /**
+     * Entrega al volcado los puntos que siguen en la ventana, sin quitarlos.
+     */
+    void volcarRetenidos() {
+        if (volcado == null) return;
+        for (int k = 0; k < cantidad; k++) {
+            volcado.volcar(serie, x(k), y(k));
+        }
+    }
+
+    void limpiar() {
+        inicio = 0;
+        cantidad = 0;
+        desalojados = 0;
+    }
+
+    int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Cuántos puntos han salido de la ventana desde el último limpiar.
+     */
+    long getDesalojados() {
+        return desalojados;
+    }
+
+    double getMinX() {
+        return cantidad == 0 ? 0 : x(0);
+    }
+
+    double getMaxX() {
+        return cantidad == 0 ? 0 : x(cantidad - 1);
+    }
+
+    /**
+     * Reescribe destino con los puntos de [desde, hasta] reducidos a cubetas
+     * del mismo ancho en X. Si caben sin reducir se copian tal cual. Dispara un
+     * solo evento de cambio en destino.
+     */
+    void reducir(double desde, double hasta, int cubetas, XYSeries destino) {
+        destino.setNotify(false);
+        destino.clear();
+        int primero = buscar(desde);
+        int ultimo = primero;
+        while (ultimo < cantidad && x(ultimo) <= hasta) {
+            ultimo++;
+        }
+        // Un punto a cada lado para que la línea llegue a los bordes
+        if (primero > 0) primero--;
+        if (ultimo < cantidad) ultimo++;
+
+        if (ultimo - primero <= 4 * cubetas || hasta <= desde) {
+            for (int k = primero; k < ultimo; k++) {
+                destino.add(x(k), y(k), false);
+            }
+        } else {
+            double ancho = (hasta - desde) / cubetas;
+            int k = primero;
+            while (k < ultimo) {
+                long cubeta = (long) Math.floor((x(k) - desde) / ancho);
+                int kPrimero = k, kMin = k, kMax = k;
+                k++;
+                while (k < ultimo && (long) Math.floor((x(k) - desde) / ancho) == cubeta) {
+                    if (y(k) < y(kMin)) kMin = k;
+                    if (y(k) > y(kMax)) kMax = k;
+                    k++;
+                }
+                agregarCubeta(destino, kPrimero, Math.min(kMin, kMax), Math.max(kMin, kMax), k - 1);
+            }
+        }
+        destino.setNotify(true);
+    }
+
+    // Agrega los representantes de una cubeta (a <= b <= c <= d) sin repetir
+    private void agregarCubeta(XYSeries destino, int a, int b, int c, int d) {
+        destino.add(x(a), y(a), false);
+        if (b != a) destino.add(x(b), y(b), false);
+        if (c != b) destino.add(x(c), y(c), false);
+        if (d != c) destino.add(x(d), y(d), false);
+    }
+
+    private double x(int k) {
+        return xs[(inicio + k) % xs.length];
+    }
+
+    private double y(int k) {
+        return ys[(inicio + k) % xs.length];
+    }
+
+    // Primer índice lógico con x >= valor (búsqueda binaria, X no decrece)
+    private int buscar(double valor) {
+        int bajo = 0;
+        int alto = cantidad;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (x(medio) < valor) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+}
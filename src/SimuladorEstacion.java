@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Simulación de eventos discretos de la Estación Solar: reloj virtual y cola
+ * de eventos en lugar de hilos y Thread.sleep, así se simulan días de
+ * operación en segundos y la misma semilla da siempre el mismo resultado.
+ *
+ * Reproduce dronTrabajo y administradorEnergetico de EstacionSolarPanel:
+ * el dron trabaja 1-3 s, pierde 10-29 de batería (crítico si queda bajo 30),
+ * pide bahía, recarga 1-2.5 s y la libera; cada segundo la energía cambia
+ * entre -15 y +14 dentro de 0-150 y sin energía no se asignan bahías. Quién
+ * recibe la bahía lo decide la PoliticaAsignacion del algoritmo.
+ *
+ * Las esperas son en tiempo virtual y no incluyen los costos de los
+ * candados: para eso está BenchmarkGestorEstacion.
+ *
+ * Uso: java SimuladorEstacion [clave=valor ...]
+ *   algoritmos=Monitores,Barreras   nombres de EstacionesCarga
+ *   drones=8                        drones por simulación
+ *   bahias=3                        bahías de la estación
+ *   horas=24                        tiempo virtual simulado
+ *   semilla=1                       semilla de la corrida
+ *   salida=simulacion.csv           copia opcional del CSV en archivo
+ */
+public class SimuladorEstacion {
+
+    private static final String ENCABEZADO =
+            "algoritmo,drones,bahias,horas,semilla,recargas,asignaciones_criticas,"
+            + "espera_critico_media_ms,espera_critico_p99_ms,espera_critico_max_ms,"
+            + "espera_normal_media_ms,espera_normal_p99_ms,espera_normal_max_ms,"
+            + "ocupacion_bahias,sin_energia,eventos,ms_reales";
+
+    private static final int ENERGIA_INICIAL = 100;
+    private static final int ENERGIA_MAXIMA = 150;
+    private static final long PERIODO_ENERGIA_MS = 1000;
+
+    // Tipos de evento
+    private static final int FIN_TRABAJO = 0;
+    private static final int FIN_RECARGA = 1;
+    private static final int CAMBIO_ENERGIA = 2;
+    private static final int VENCIMIENTO = 3;
+
+    private static final class Evento {
+        final long tiempo;
+        final long secuencia; // desempata eventos del mismo instante en orden de creación
+        final int tipo;
+        final int dron;
+
+        Evento(long tiempo, long secuencia, int tipo, int dron) {
+            this.tiempo = tiempo;
+            this.secuencia = secuencia;
+            this.tipo = tipo;
+            this.dron = dron;
+        }
+    }
+
+    private final PriorityQueue<Evento> eventos = new PriorityQueue<>((a, b) ->
+            a.tiempo != b.tiempo ? Long.compare(a.tiempo, b.tiempo) : Long.compare(a.secuencia, b.secuencia));
+    private final PoliticaAsignacion politica;
+    private final Random random;
+    private final int bahias;
+    private final int[] bateria;
+    private final boolean[] critico;
+    private final long[] llegada;
+    private final int[] admitidos;
+
+    private long ahora = 0;
+    private long secuencia = 0;
+    private int libres;
+    private int energia = ENERGIA_INICIAL;
+    private long vencimientoProgramado = Long.MIN_VALUE;
+
+    private final HistogramaLatencia esperaCriticos = new HistogramaLatencia();
+    private final HistogramaLatencia esperaNormales = new HistogramaLatencia();
+    private long recargas;
+    private long bahiaMs;        // suma de tiempo de bahía ocupada
+    private long sinEnergiaMs;
+    private long eventosProcesados;
+
+    SimuladorEstacion(String algoritmo, int drones, int bahias, long semilla) {
+        this.politica = PoliticaAsignacion.paraAlgoritmo(algoritmo, bahias);
+        this.random = new Random(semilla);
+        this.bahias = bahias;
+        this.libres = bahias;
+        this.bateria = new int[drones];
+        this.critico = new boolean[drones];
+        this.llegada = new long[drones];
+        this.admitidos = new int[bahias];
+
+        for (int i = 0; i < drones; i++) {
+            bateria[i] = random.nextInt(50) + 50;
+            programar(random.nextInt(2000) + 1000, FIN_TRABAJO, i);
+        }
+        programar(PERIODO_ENERGIA_MS, CAMBIO_ENERGIA, -1);
+    }
+
+    /**
+     * Avanza el reloj virtual hasta duracionMs procesando los eventos en orden.
+     */
+    void correr(long duracionMs) {
+        while (!eventos.isEmpty() && eventos.peek().tiempo <= duracionMs) {
+            Evento e = eventos.poll();
+            if (energia == 0) sinEnergiaMs += e.tiempo - ahora;
+            bahiaMs += (long) (bahias - libres) * (e.tiempo - ahora);
+            ahora = e.tiempo;
+            eventosProcesados++;
+
+            switch (e.tipo) {
+                case FIN_TRABAJO:
+                    bateria[e.dron] = Math.max(0, bateria[e.dron] - (random.nextInt(20) + 10));
+                    critico[e.dron] = bateria[e.dron] < 30;
+                    llegada[e.dron] = ahora;
+                    politica.encolar(e.dron, critico[e.dron], ahora);
+                    break;
+                case FIN_RECARGA:
+                    bateria[e.dron] = 100;
+                    libres++;
+                    recargas++;
+                    programar(ahora + random.nextInt(2000) + 1000, FIN_TRABAJO, e.dron);
+                    break;
+                case CAMBIO_ENERGIA:
+                    energia = Math.max(0, Math.min(ENERGIA_MAXIMA, energia + random.nextInt(30) - 15));
+                    programar(ahora + PERIODO_ENERGIA_MS, CAMBIO_ENERGIA, -1);
+                    break;
+                default: // VENCIMIENTO: sólo reevaluar
+                    break;
+            }
+            asignarBahias();
+        }
+        if (energia == 0) sinEnergiaMs += duracionMs - ahora;
+        bahiaMs += (long) (bahias - libres) * (duracionMs - ahora);
+        ahora = duracionMs;
+    }
+
+    private void asignarBahias() {
+        if (energia > 0) {
+            int n = politica.admitir(libres, ahora, admitidos);
+            for (int i = 0; i < n; i++) {
+                int dron = admitidos[i];
+                libres--;
+                (critico[dron] ? esperaCriticos : esperaNormales).registrar(ahora - llegada[dron]);
+                programar(ahora + random.nextInt(1500) + 1000, FIN_RECARGA, dron);
+            }
+        }
+        long vence = politica.vencimiento();
+        if (vence != Long.MAX_VALUE && vence > ahora && vence != vencimientoProgramado) {
+            vencimientoProgramado = vence;
+            programar(vence, VENCIMIENTO, -1);
+        }
+    }
+
+    private void programar(long tiempo, int tipo, int dron) {
+        eventos.add(new Evento(tiempo, secuencia++, tipo, dron));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opciones = BenchmarkGestorEstacion.leerOpciones(args);
+
+        String[] algoritmos = opciones.getOrDefault("algoritmos", "Monitores,Barreras").split(",");
+        int drones = Integer.parseInt(opciones.getOrDefault("drones", "8"));
+        int bahias = Integer.parseInt(opciones.getOrDefault("bahias", "3"));
+        double horas = Double.parseDouble(opciones.getOrDefault("horas", "24"));
+        long semilla = Long.parseLong(opciones.getOrDefault("semilla", "1"));
+        String salida = opciones.get("salida");
+        long duracionMs = (long) (horas * 3_600_000L);
+
+        List<String> filas = new ArrayList<>();
+        System.out.println(ENCABEZADO);
+        for (String algoritmo : algoritmos) {
+            long inicio = System.nanoTime();
+            SimuladorEstacion simulador = new SimuladorEstacion(algoritmo.trim(), drones, bahias, semilla);
+            simulador.correr(duracionMs);
+            long msReales = (System.nanoTime() - inicio) / 1_000_000;
+
+            String fila = String.format(Locale.ROOT,
+                    "%s,%d,%d,%s,%d,%d,%d,%.1f,%d,%d,%.1f,%d,%d,%.4f,%.4f,%d,%d",
+                    algoritmo.trim(), drones, bahias, opciones.getOrDefault("horas", "24"), semilla,
+                    simulador.recargas, simulador.esperaCriticos.getCantidad(),
+                    simulador.esperaCriticos.getMedia(), simulador.esperaCriticos.percentil(99),
+                    simulador.esperaCriticos.getMaximo(),
+                    simulador.esperaNormales.getMedia(), simulador.esperaNormales.percentil(99),
+                    simulador.esperaNormales.getMaximo(),
+                    (double) simulador.bahiaMs / ((double) bahias * duracionMs),
+                    (double) simulador.sinEnergiaMs / duracionMs,
+                    simulador.eventosProcesados, msReales);
+            System.out.println(fila);
+            filas.add(fila);
+        }
+
+        if (salida != null) {
+            List<String> lineas = new ArrayList<>();
+            lineas.add(ENCABEZADO);
+            lineas.addAll(filas);
+            Files.write(Paths.get(salida), lineas, StandardCharsets.UTF_8);
+            System.out.println("CSV escrito en " + salida);
+        }
+    }
+}